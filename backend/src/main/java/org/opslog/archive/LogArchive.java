@@ -0,0 +1,164 @@
+package org.opslog.archive;
+
+import org.jboss.logging.Logger;
+import org.opslog.dto.LogListItem;
+import org.opslog.security.AccountSecurityContext;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Catalog of the {@link LogSegment} files in {@code opslog.archive.directory}.
+ * <p>
+ * Every published segment is memory-mapped once and its header kept in memory, so a query skips
+ * segments outside its time range or groups without touching their data. Segments are written by
+ * {@link LogArchiver} as {@code *.olseg.pending} and renamed once the rows left the database; only
+ * renamed files are read. The directory must be shared (or the application run on one node) for
+ * every node to list the same archive; {@link #refresh()} picks up segments written elsewhere.
+ * </p>
+ */
+@ApplicationScoped
+public class LogArchive {
+
+    private static final Logger LOG = Logger.getLogger(LogArchive.class);
+
+    static final String PENDING_SUFFIX = LogSegment.SUFFIX + ".pending";
+
+    /** Newest first, like the database listings. */
+    private static final Comparator<LogListItem> NEWEST_EVENT_FIRST = Comparator
+        .comparing(LogListItem::timeOfEvent).thenComparingLong(LogListItem::id).reversed();
+
+    @ConfigProperty(name = "opslog.archive.directory", defaultValue = "archive")
+    String directory;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Map<Path, LogSegment> segments = Map.of();
+
+    /** Re-reads the directory, opening new segments and forgetting removed ones. */
+    public void refresh() {
+        lock.lock();
+        try {
+            Map<Path, LogSegment> current = new HashMap<>();
+            for (Path path : list(LogSegment.SUFFIX)) {
+                LogSegment segment = segments.get(path);
+                if (segment == null) segment = open(path);
+                if (segment != null) current.put(path, segment);
+            }
+            segments = Map.copyOf(current);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Number of archived logs, revisions included. */
+    public long size() {
+        return segments.values().stream().mapToLong(LogSegment::size).sum();
+    }
+
+    /**
+     * List view rows of the archived logs visible to the account with a time of event in
+     * {@code [from, to]}, newest first. {@code null} bounds are open.
+     */
+    public List<LogListItem> list(AccountSecurityContext security, ZonedDateTime from, ZonedDateTime to) {
+        return list(security, from, to, null);
+    }
+
+    /** Like {@link #list(AccountSecurityContext, ZonedDateTime, ZonedDateTime)}, tagged with any of the tags. */
+    public List<LogListItem> list(AccountSecurityContext security, ZonedDateTime from, ZonedDateTime to,
+                                  long[] tagIds) {
+        if (security.hasNoGroups() || segments.isEmpty()) return List.of();
+        long[] groupIds = security.groupIds();
+        List<LogListItem> items = new ArrayList<>();
+        for (LogSegment segment : segments.values()) {
+            items.addAll(segment.list(groupIds, from, to, tagIds));
+        }
+        items.sort(NEWEST_EVENT_FIRST);
+        return items;
+    }
+
+    // --- Used by LogArchiver --- //
+
+    /** A fresh path for a segment about to be written. */
+    Path newPendingPath() {
+        try {
+            Files.createDirectories(Path.of(directory));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Path.of(directory, "segment-" + Instant.now().toEpochMilli() + "-" + UUID.randomUUID() + PENDING_SUFFIX);
+    }
+
+    List<Path> pendingPaths() {
+        return list(PENDING_SUFFIX);
+    }
+
+    /** Makes a pending segment visible to queries. */
+    void publish(Path pending) {
+        String name = pending.getFileName().toString();
+        Path published = pending.resolveSibling(name.substring(0, name.length() - PENDING_SUFFIX.length()) + LogSegment.SUFFIX);
+        try {
+            Files.move(pending, published, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException | FileAlreadyExistsException e) {
+            // Already published by another node recovering it
+            if (!Files.exists(published)) throw new UncheckedIOException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        LogSegment segment = open(published);
+        if (segment == null) return;
+        lock.lock();
+        try {
+            Map<Path, LogSegment> current = new HashMap<>(segments);
+            current.put(published, segment);
+            segments = Map.copyOf(current);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void discard(Path pending) {
+        try {
+            Files.deleteIfExists(pending);
+        } catch (IOException e) {
+            LOG.warnf(e, "Could not delete unused archive segment %s", pending);
+        }
+    }
+
+    private List<Path> list(String suffix) {
+        Path root = Path.of(directory);
+        if (!Files.isDirectory(root)) return List.of();
+        try (Stream<Path> files = Files.list(root)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix)).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LogSegment open(Path path) {
+        try {
+            return LogSegment.open(path);
+        } catch (IOException | RuntimeException e) {
+            LOG.errorf(e, "Skipping unreadable archive segment %s", path);
+            return null;
+        }
+    }
+}
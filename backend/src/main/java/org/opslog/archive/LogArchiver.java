@@ -0,0 +1,232 @@
+package org.opslog.archive;
+
+import org.jboss.logging.Logger;
+import org.opslog.entities.Log;
+import org.opslog.entities.LogVisibleGroup;
+import org.opslog.entities.Tag;
+import org.opslog.index.LogIndexChange;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.persistence.EntityManager;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Cache;
+import org.hibernate.query.NativeQuery;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves logs past the retention period of their groups out of PostgreSQL into {@link LogSegment}
+ * files of the {@link LogArchive}.
+ * <p>
+ * A revision chain is archived as a whole once its head is older than the retention of every
+ * group it is visible to ({@link org.opslog.entities.Group#getRetentionDays()}); chains visible to
+ * a group without retention stay in the database. Each batch is written to a pending segment,
+ * then deleted from the database in one transaction, and the segment is published after commit.
+ * A pending segment left behind by a crash is published at startup if its rows are gone from the
+ * database and discarded otherwise, so a log is never lost nor listed twice.
+ * </p>
+ */
+@ApplicationScoped
+public class LogArchiver {
+
+    private static final Logger LOG = Logger.getLogger(LogArchiver.class);
+
+    /** Key for pg_try_advisory_xact_lock, so only one node archives at a time. */
+    private static final long LOCK_KEY = 0x6f70736172636876L;
+
+    /** Heads whose chains are due: older than the retention of every group they are visible to. */
+    private static final String DUE_CHAINS =
+        "SELECT coalesce(l.root_id, l.id) FROM log l " +
+        "WHERE l.is_head " +
+        "AND EXISTS (SELECT 1 FROM log_visible_group v WHERE v.log_id = l.id) " +
+        "AND NOT EXISTS (SELECT 1 FROM log_visible_group v JOIN \"group\" g ON g.id = v.group_id " +
+        "    WHERE v.log_id = l.id " +
+        "    AND (g.retention_days IS NULL OR l.time_of_event >= now() - make_interval(days => g.retention_days))) " +
+        "ORDER BY l.time_of_event " +
+        "LIMIT ?1";
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    LogArchive archive;
+
+    @Inject
+    Event<LogIndexChange> indexChanges;
+
+    @ConfigProperty(name = "opslog.archive.enabled", defaultValue = "true")
+    boolean enabled;
+
+    /** Revision chains moved per segment and transaction. */
+    @ConfigProperty(name = "opslog.archive.batch-size", defaultValue = "2000")
+    int batchSize;
+
+    // After the schema steps and the partition conversion
+    void onStart(@Observes @Priority(Interceptor.Priority.LIBRARY_AFTER) StartupEvent event) {
+        if (!enabled) return;
+        recoverPending();
+        archive.refresh();
+    }
+
+    @Scheduled(every = "${opslog.archive.interval}", delayed = "${opslog.archive.interval}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRun() {
+        if (!enabled) return;
+        run();
+        archive.refresh();
+    }
+
+    /**
+     * Archives every chain that is due, one batch at a time.
+     *
+     * @return number of logs moved, revisions included
+     */
+    public int run() {
+        int moved = 0;
+        int batch;
+        do {
+            batch = archiveBatch();
+            moved += batch;
+        } while (batch > 0);
+        if (moved > 0) LOG.infof("Archived %d logs past their retention", moved);
+        return moved;
+    }
+
+    private int archiveBatch() {
+        Path pending = archive.newPendingPath();
+        List<Long> ids;
+        try {
+            ids = QuarkusTransaction.requiringNew().call(() -> moveBatch(pending));
+        } catch (RuntimeException e) {
+            archive.discard(pending);
+            throw e;
+        }
+        if (ids.isEmpty()) {
+            archive.discard(pending);
+            return 0;
+        }
+        archive.publish(pending);
+        return ids.size();
+    }
+
+    /** Writes one batch of due chains to the pending segment and deletes them; returns their ids. */
+    private List<Long> moveBatch(Path pending) {
+        Object locked = entityManager.createNativeQuery("SELECT pg_try_advisory_xact_lock(?1)")
+            .setParameter(1, LOCK_KEY)
+            .getSingleResult();
+        if (!Boolean.TRUE.equals(locked)) return List.of();
+
+        List<Long> roots = new ArrayList<>();
+        for (Object root : entityManager.createNativeQuery(DUE_CHAINS).setParameter(1, batchSize).getResultList()) {
+            roots.add(((Number) root).longValue());
+        }
+        if (roots.isEmpty()) return List.of();
+
+        List<Log> logs = entityManager.createQuery(
+                "from Log l join fetch l.createdBy where l.id in :roots or l.rootId in :roots " +
+                "order by l.timeOfEvent, l.id", Log.class)
+            .setParameter("roots", roots)
+            .getResultList();
+        List<Long> ids = logs.stream().map(Log::getId).toList();
+        Long[] idArray = ids.toArray(Long[]::new);
+
+        Map<Long, List<Long>> groups = new HashMap<>();
+        for (Object row : entityManager.createNativeQuery(
+                "SELECT log_id, group_id FROM log_visible_group WHERE log_id = ANY(?1)")
+                .setParameter(1, idArray).getResultList()) {
+            Object[] pair = (Object[]) row;
+            groups.computeIfAbsent(((Number) pair[0]).longValue(), id -> new ArrayList<>())
+                .add(((Number) pair[1]).longValue());
+        }
+
+        Map<Long, String> tagTitles = new HashMap<>();
+        List<LogSegment.Row> rows = new ArrayList<>(logs.size());
+        for (Log log : logs) {
+            long[] tagIds = log.getTags().stream().mapToLong(Tag::getId).toArray();
+            for (Tag tag : log.getTags()) tagTitles.put(tag.getId(), tag.getTitle());
+            long[] groupIds = groups.getOrDefault(log.getId(), List.of()).stream().mapToLong(Long::longValue).toArray();
+            rows.add(new LogSegment.Row(log.getId(), log.getChainRootId(),
+                log.getParent() == null ? null : log.getParent().getId(), log.isHead(),
+                log.getTimeOfEvent(), log.getCreatedAt(), log.getRevisedAt(),
+                log.getCreatedBy().getId(), log.getCreatedBy().getUsername(),
+                log.getRevisedBy() == null ? null : log.getRevisedBy().getId(),
+                // The getters resolve delta-encoded revisions; segments hold full text
+                log.getTitle(), log.getDescription(), tagIds, groupIds));
+        }
+        try {
+            LogSegment.write(pending, rows, tagTitles);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        entityManager.clear();
+        mutation("DELETE FROM log_tags WHERE log_id = ANY(?1)", Log.class).setParameter(1, idArray).executeUpdate();
+        mutation("DELETE FROM log_visible_group WHERE log_id = ANY(?1)", LogVisibleGroup.class)
+            .setParameter(1, idArray).executeUpdate();
+        mutation("DELETE FROM log WHERE id = ANY(?1)", Log.class).setParameter(1, idArray).executeUpdate();
+        entityManager.getEntityManagerFactory().getCache().unwrap(Cache.class).evictCollectionData(Log.TAGS_CACHE_REGION);
+        indexChanges.fire(LogIndexChange.logs(ids));
+        return ids;
+    }
+
+    /** A native statement declared to touch only the given entity's table, keeping the second-level cache. */
+    @SuppressWarnings("unchecked")
+    private NativeQuery<?> mutation(String sql, Class<?> entity) {
+        return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class).addSynchronizedEntityClass(entity);
+    }
+
+    /**
+     * Publishes or discards segments whose transaction outcome was not seen before the last shutdown.
+     * <p>
+     * The archive directory may be shared, so a pending file can belong to a node that is archiving
+     * right now. Each file is therefore inspected and resolved only while holding the archiving
+     * lock: a batch writes its segment and deletes its rows within one transaction holding that
+     * lock, so under it every pending file is either complete with its transaction finished, or
+     * incomplete because that transaction never committed.
+     * </p>
+     */
+    private void recoverPending() {
+        for (Path pending : archive.pendingPaths()) {
+            String outcome = QuarkusTransaction.requiringNew().call(() -> {
+                entityManager.createNativeQuery("SELECT count(*) FROM (SELECT pg_advisory_xact_lock(?1)) AS l")
+                    .setParameter(1, LOCK_KEY)
+                    .getSingleResult();
+                if (!Files.exists(pending)) return null; // resolved by its writer or another node meanwhile
+                long firstId;
+                try {
+                    firstId = LogSegment.open(pending).firstId();
+                } catch (IOException | RuntimeException e) {
+                    archive.discard(pending);
+                    return "discarded, incomplete";
+                }
+                boolean committed = entityManager.createNativeQuery("SELECT 1 FROM log WHERE id = ?1")
+                    .setParameter(1, firstId)
+                    .getResultList()
+                    .isEmpty();
+                if (committed) {
+                    archive.publish(pending);
+                    return "published";
+                }
+                archive.discard(pending);
+                return "discarded";
+            });
+            if (outcome != null) LOG.infof("Recovered archive segment %s: %s", pending, outcome);
+        }
+    }
+}
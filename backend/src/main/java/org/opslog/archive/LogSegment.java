@@ -0,0 +1,411 @@
+package org.opslog.archive;
+
+import org.opslog.dto.LogListItem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * An immutable file of archived logs, stored column by column.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ *     magic, version, row count, min and max time of event (epoch microseconds)
+ *     group ids the rows are visible to (sorted)
+ *     tag dictionary: id and title of every tag used by the rows
+ *     per column: raw and compressed length
+ *     per column: the deflated values of all rows
+ * </pre>
+ * The header doubles as the segment's summary: whether a query can match anything in the segment
+ * (time range, groups, tags) is decided from it without inflating a single column. A query then
+ * only inflates the columns it reads, straight out of the memory-mapped file.
+ * </p>
+ */
+public final class LogSegment {
+
+    /** File name suffix of published segments. */
+    static final String SUFFIX = ".olseg";
+
+    private static final long MAGIC = 0x4f50534c4f475347L; // "OPSLOGSG"
+    private static final int VERSION = 1;
+
+    // Columns, in file order
+    private static final int ID = 0;
+    private static final int ROOT_ID = 1;
+    private static final int PARENT_ID = 2;
+    private static final int HEAD = 3;
+    private static final int TIME_OF_EVENT = 4;
+    private static final int CREATED_AT = 5;
+    private static final int REVISED_AT = 6;
+    private static final int AUTHOR_ID = 7;
+    private static final int AUTHOR = 8;
+    private static final int REVISED_BY_ID = 9;
+    private static final int TITLE = 10;
+    private static final int DESCRIPTION = 11;
+    private static final int TAGS = 12;
+    private static final int GROUPS = 13;
+    private static final int COLUMNS = 14;
+
+    /** Marks a missing long value (no parent, no revision time, ...). */
+    private static final long NONE = Long.MIN_VALUE;
+
+    /** One archived log; nullable fields are the ones nullable on {@code Log}. */
+    public record Row(long id, long rootId, Long parentId, boolean head, ZonedDateTime timeOfEvent,
+                      ZonedDateTime createdAt, ZonedDateTime revisedAt, long authorId, String author,
+                      Long revisedById, String title, String description, long[] tagIds, long[] groupIds) {}
+
+    private final Path path;
+    private final ByteBuffer file;
+    private final int rows;
+    private final long minTime;
+    private final long maxTime;
+    private final long[] groupIds;
+    private final Map<Long, String> tagTitles;
+    private final int[] rawLengths = new int[COLUMNS];
+    private final int[] offsets = new int[COLUMNS];
+    private final int[] lengths = new int[COLUMNS];
+
+    private LogSegment(Path path, ByteBuffer file) throws IOException {
+        this.path = path;
+        this.file = file;
+        if (file.getLong() != MAGIC) throw new IOException("Not a log segment: " + path);
+        int version = file.getInt();
+        if (version != VERSION) throw new IOException("Unsupported log segment version " + version + ": " + path);
+        rows = file.getInt();
+        minTime = file.getLong();
+        maxTime = file.getLong();
+
+        groupIds = new long[file.getInt()];
+        for (int i = 0; i < groupIds.length; i++) groupIds[i] = file.getLong();
+        int tags = file.getInt();
+        Map<Long, String> titles = new HashMap<>(tags * 2);
+        for (int i = 0; i < tags; i++) titles.put(file.getLong(), string(file));
+        tagTitles = Collections.unmodifiableMap(titles);
+
+        for (int c = 0; c < COLUMNS; c++) {
+            rawLengths[c] = file.getInt();
+            lengths[c] = file.getInt();
+        }
+        int offset = file.position();
+        for (int c = 0; c < COLUMNS; c++) {
+            offsets[c] = offset;
+            offset += lengths[c];
+        }
+        if (offset != file.limit()) throw new IOException("Truncated log segment: " + path);
+    }
+
+    /** Maps the segment file into memory and reads its header. */
+    static LogSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new LogSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /** Writes rows, ordered by time of event, to a new segment file and forces it to disk. */
+    static void write(Path path, List<Row> rows, Map<Long, String> tagTitles) throws IOException {
+        Column[] columns = new Column[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) columns[c] = new Column();
+        TreeSet<Long> groups = new TreeSet<>();
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        for (Row row : rows) {
+            long time = micros(row.timeOfEvent());
+            min = Math.min(min, time);
+            max = Math.max(max, time);
+            columns[ID].out.writeLong(row.id());
+            columns[ROOT_ID].out.writeLong(row.rootId());
+            columns[PARENT_ID].out.writeLong(row.parentId() == null ? NONE : row.parentId());
+            columns[HEAD].out.writeBoolean(row.head());
+            columns[TIME_OF_EVENT].out.writeLong(time);
+            columns[CREATED_AT].out.writeLong(micros(row.createdAt()));
+            columns[REVISED_AT].out.writeLong(micros(row.revisedAt()));
+            columns[AUTHOR_ID].out.writeLong(row.authorId());
+            writeString(columns[AUTHOR].out, row.author());
+            columns[REVISED_BY_ID].out.writeLong(row.revisedById() == null ? NONE : row.revisedById());
+            writeString(columns[TITLE].out, row.title());
+            writeString(columns[DESCRIPTION].out, row.description());
+            writeIds(columns[TAGS].out, row.tagIds());
+            writeIds(columns[GROUPS].out, row.groupIds());
+            for (long group : row.groupIds()) groups.add(group);
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(header);
+        out.writeLong(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(rows.size());
+        out.writeLong(min);
+        out.writeLong(max);
+        out.writeInt(groups.size());
+        for (long group : groups) out.writeLong(group);
+        out.writeInt(tagTitles.size());
+        for (Map.Entry<Long, String> tag : tagTitles.entrySet()) {
+            out.writeLong(tag.getKey());
+            writeString(out, tag.getValue());
+        }
+        byte[][] compressed = new byte[COLUMNS][];
+        for (int c = 0; c < COLUMNS; c++) {
+            byte[] raw = columns[c].bytes.toByteArray();
+            compressed[c] = deflate(raw);
+            out.writeInt(raw.length);
+            out.writeInt(compressed[c].length);
+        }
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.wrap(header.toByteArray()));
+            for (byte[] column : compressed) writeFully(channel, ByteBuffer.wrap(column));
+            channel.force(true);
+        }
+    }
+
+    Path path() { return path; }
+
+    public int size() { return rows; }
+
+    public ZonedDateTime minTime() { return time(minTime); }
+
+    public ZonedDateTime maxTime() { return time(maxTime); }
+
+    /** Id of the first log in the segment, used to tell whether its move out of the database committed. */
+    long firstId() {
+        return rows == 0 ? NONE : column(ID).getLong(0);
+    }
+
+    /** Whether any row's time of event may lie in {@code [from, to]}; {@code null} bounds are open. */
+    boolean overlaps(ZonedDateTime from, ZonedDateTime to) {
+        return (from == null || maxTime >= micros(from)) && (to == null || minTime <= micros(to));
+    }
+
+    /** Whether any row is visible to any of the sorted group ids. */
+    boolean visibleToAny(long[] sortedGroupIds) {
+        int i = 0;
+        int j = 0;
+        while (i < groupIds.length && j < sortedGroupIds.length) {
+            if (groupIds[i] == sortedGroupIds[j]) return true;
+            if (groupIds[i] < sortedGroupIds[j]) i++;
+            else j++;
+        }
+        return false;
+    }
+
+    /** Whether any row may carry any of the tags. */
+    boolean containsAnyTag(long[] tagIds) {
+        for (long tagId : tagIds) {
+            if (tagTitles.containsKey(tagId)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * List view rows of the heads in {@code [from, to]} visible to any of the sorted group ids and,
+     * unless {@code tagIds} is {@code null}, tagged with any of them.
+     */
+    List<LogListItem> list(long[] sortedGroupIds, ZonedDateTime from, ZonedDateTime to, long[] tagIds) {
+        if (!overlaps(from, to) || !visibleToAny(sortedGroupIds)) return List.of();
+        if (tagIds != null && !containsAnyTag(tagIds)) return List.of();
+
+        long lower = from == null ? Long.MIN_VALUE : micros(from);
+        long upper = to == null ? Long.MAX_VALUE : micros(to);
+        long[] times = longs(TIME_OF_EVENT);
+        ByteBuffer heads = column(HEAD);
+        long[][] groups = idLists(GROUPS);
+        long[][] tags = idLists(TAGS);
+
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            if (heads.get(i) == 0 || times[i] < lower || times[i] > upper) continue;
+            if (!intersects(groups[i], sortedGroupIds)) continue;
+            if (tagIds != null && !intersects(tags[i], tagIds)) continue;
+            matches.add(i);
+        }
+        if (matches.isEmpty()) return List.of();
+
+        long[] ids = longs(ID);
+        String[] titles = strings(TITLE);
+        String[] authors = strings(AUTHOR);
+        List<LogListItem> items = new ArrayList<>(matches.size());
+        for (int i : matches) {
+            List<String> tagTitles = new ArrayList<>(tags[i].length);
+            for (long tag : tags[i]) tagTitles.add(this.tagTitles.getOrDefault(tag, ""));
+            Collections.sort(tagTitles);
+            items.add(new LogListItem(ids[i], titles[i], time(times[i]), authors[i], tagTitles, true));
+        }
+        return items;
+    }
+
+    /** Every row of the segment, e.g. to restore it into the database. */
+    public List<Row> rows() {
+        long[] ids = longs(ID);
+        long[] roots = longs(ROOT_ID);
+        long[] parents = longs(PARENT_ID);
+        ByteBuffer heads = column(HEAD);
+        long[] times = longs(TIME_OF_EVENT);
+        long[] created = longs(CREATED_AT);
+        long[] revised = longs(REVISED_AT);
+        long[] authorIds = longs(AUTHOR_ID);
+        String[] authors = strings(AUTHOR);
+        long[] revisers = longs(REVISED_BY_ID);
+        String[] titles = strings(TITLE);
+        String[] descriptions = strings(DESCRIPTION);
+        long[][] tags = idLists(TAGS);
+        long[][] groups = idLists(GROUPS);
+
+        List<Row> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            result.add(new Row(ids[i], roots[i], parents[i] == NONE ? null : parents[i], heads.get(i) != 0,
+                time(times[i]), time(created[i]), time(revised[i]), authorIds[i], authors[i],
+                revisers[i] == NONE ? null : revisers[i], titles[i], descriptions[i], tags[i], groups[i]));
+        }
+        return result;
+    }
+
+    /** Tag ids and titles used by the segment's rows. */
+    public Map<Long, String> tagTitles() {
+        return tagTitles;
+    }
+
+    // --- Column decoding --- //
+
+    /** Inflates a column out of the mapped file. */
+    private ByteBuffer column(int column) {
+        byte[] raw = new byte[rawLengths[column]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(file.slice(offsets[column], lengths[column]));
+            int read = 0;
+            while (read < raw.length) {
+                int n = inflater.inflate(raw, read, raw.length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) break;
+                read += n;
+            }
+            if (read != raw.length) throw new IllegalStateException("Corrupt column " + column + " in " + path);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt column " + column + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(raw);
+    }
+
+    private long[] longs(int column) {
+        ByteBuffer values = column(column);
+        long[] result = new long[rows];
+        for (int i = 0; i < rows; i++) result[i] = values.getLong();
+        return result;
+    }
+
+    private String[] strings(int column) {
+        ByteBuffer values = column(column);
+        String[] result = new String[rows];
+        for (int i = 0; i < rows; i++) result[i] = string(values);
+        return result;
+    }
+
+    private long[][] idLists(int column) {
+        ByteBuffer values = column(column);
+        long[][] result = new long[rows][];
+        for (int i = 0; i < rows; i++) {
+            long[] ids = new long[values.getInt()];
+            for (int j = 0; j < ids.length; j++) ids[j] = values.getLong();
+            result[i] = ids;
+        }
+        return result;
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean intersects(long[] values, long[] candidates) {
+        for (long value : values) {
+            for (long candidate : candidates) {
+                if (value == candidate) return true;
+            }
+        }
+        return false;
+    }
+
+    // --- Encoding --- //
+
+    /** An uncompressed column being written. */
+    private static final class Column {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeIds(DataOutputStream out, long[] ids) throws IOException {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        out.writeInt(sorted.length);
+        for (long id : sorted) out.writeLong(id);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    private static long micros(ZonedDateTime time) {
+        if (time == null) return NONE;
+        Instant instant = time.toInstant();
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    private static ZonedDateTime time(long micros) {
+        if (micros == NONE) return null;
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L)
+            .atZone(ZoneOffset.UTC);
+    }
+}
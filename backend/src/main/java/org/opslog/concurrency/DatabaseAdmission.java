@@ -0,0 +1,63 @@
+package org.opslog.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the connection pool for {@link DatabaseBound} resources.
+ * <p>
+ * On virtual threads the number of concurrent requests is no longer capped by a worker pool, so
+ * thousands of requests could queue inside Agroal and fail with an acquisition timeout deep in a
+ * repository call. Instead at most {@code opslog.db.max-concurrent-requests} requests run at once,
+ * kept below {@code quarkus.datasource.jdbc.max-size} to leave connections for scheduled jobs.
+ * The others park on the semaphore, which costs a virtual thread next to nothing, and give up
+ * after {@code opslog.db.admission-timeout} before doing any work.
+ * </p>
+ */
+@ApplicationScoped
+public class DatabaseAdmission {
+
+    @ConfigProperty(name = "opslog.db.max-concurrent-requests", defaultValue = "40")
+    int maxConcurrentRequests;
+
+    @ConfigProperty(name = "opslog.db.admission-timeout", defaultValue = "2s")
+    Duration admissionTimeout;
+
+    @Inject
+    MeterRegistry registry;
+
+    private Semaphore permits;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(maxConcurrentRequests);
+        Gauge.builder("opslog.db.admission.waiting", permits, Semaphore::getQueueLength)
+            .description("Requests waiting for a database admission permit")
+            .register(registry);
+        Gauge.builder("opslog.db.admission.available", permits, Semaphore::availablePermits)
+            .description("Database admission permits not in use")
+            .register(registry);
+    }
+
+    /**
+     * Waits up to the admission timeout for a permit.
+     *
+     * @return {@code false} if none became free; the caller must not proceed
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        return permits.tryAcquire(admissionTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void release() {
+        permits.release();
+    }
+}
@@ -0,0 +1,31 @@
+package org.opslog.concurrency;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import jakarta.ws.rs.ServiceUnavailableException;
+
+/**
+ * Runs {@link DatabaseBound} methods only once {@link DatabaseAdmission} grants a permit;
+ * answers 503 with a {@code Retry-After} of one second otherwise.
+ */
+@DatabaseBound
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class DatabaseAdmissionInterceptor {
+
+    @Inject
+    DatabaseAdmission admission;
+
+    @AroundInvoke
+    Object admit(InvocationContext context) throws Exception {
+        if (!admission.tryAcquire()) throw new ServiceUnavailableException(1L);
+        try {
+            return context.proceed();
+        } finally {
+            admission.release();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.opslog.concurrency;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a REST resource class or method that holds a JDBC connection while it runs, so it is
+ * admitted through {@link DatabaseAdmission} before touching the pool.
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface DatabaseBound {}
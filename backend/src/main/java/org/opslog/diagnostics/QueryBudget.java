@@ -0,0 +1,20 @@
+package org.opslog.diagnostics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides {@code opslog.query-budget.max-statements} for a REST resource class or method whose
+ * requests legitimately need more (or should need fewer) SQL statements.
+ *
+ * @see QueryBudgetFilter
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface QueryBudget {
+
+    /** Maximum number of SQL statements per request. */
+    int value();
+}
@@ -0,0 +1,72 @@
+package org.opslog.diagnostics;
+
+import org.jboss.logging.Logger;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.lang.reflect.Method;
+
+/**
+ * Checks every REST request against its query budget: the number of SQL statements it may issue,
+ * {@code opslog.query-budget.max-statements} or the {@link QueryBudget} of the resource.
+ * <p>
+ * A request over budget usually means a lazy association is loaded once per row (N+1). It is
+ * logged, and with {@code opslog.query-budget.fail} (set in the test profile) answered with
+ * 500 instead, so the regression fails the test that exercised it.
+ * </p>
+ */
+@Provider
+public class QueryBudgetFilter implements ContainerResponseFilter {
+
+    private static final Logger LOG = Logger.getLogger(QueryBudgetFilter.class);
+
+    @Inject
+    QueryCounter counter;
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @ConfigProperty(name = "opslog.query-budget.max-statements", defaultValue = "0")
+    int maxStatements;
+
+    @ConfigProperty(name = "opslog.query-budget.fail", defaultValue = "false")
+    boolean fail;
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        if (maxStatements <= 0) return;
+        int budget = budget();
+        int statements = counter.statements();
+        if (statements <= budget) return;
+
+        String message = String.format("%s /%s issued %d SQL statements, its budget is %d",
+            request.getMethod(), request.getUriInfo().getPath(), statements, budget);
+        if (!fail) {
+            LOG.warn(message);
+            return;
+        }
+        LOG.error(message);
+        response.setStatus(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        response.getHeaders().putSingle(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN);
+        response.setEntity(message);
+    }
+
+    private int budget() {
+        Method method = resourceInfo == null ? null : resourceInfo.getResourceMethod();
+        if (method == null) return maxStatements;
+        QueryBudget budget = method.getAnnotation(QueryBudget.class);
+        if (budget == null) budget = method.getDeclaringClass().getAnnotation(QueryBudget.class);
+        return budget == null ? maxStatements : budget.value();
+    }
+}
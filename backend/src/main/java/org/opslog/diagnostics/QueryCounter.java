@@ -0,0 +1,18 @@
+package org.opslog.diagnostics;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/** Number of SQL statements issued by the current request, counted by {@link QueryCountingInspector}. */
+@RequestScoped
+public class QueryCounter {
+
+    private int statements;
+
+    void increment() {
+        statements++;
+    }
+
+    public int statements() {
+        return statements;
+    }
+}
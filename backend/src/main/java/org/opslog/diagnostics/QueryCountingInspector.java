@@ -0,0 +1,33 @@
+package org.opslog.diagnostics;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on behalf of a request.
+ * <p>
+ * Statements outside a request (startup, the index updater, the write queue) are not counted.
+ * Counting is off unless {@code opslog.query-budget.max-statements} is set.
+ * </p>
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class QueryCountingInspector implements StatementInspector {
+
+    @Inject
+    QueryCounter counter;
+
+    @ConfigProperty(name = "opslog.query-budget.max-statements", defaultValue = "0")
+    int maxStatements;
+
+    @Override
+    public String inspect(String sql) {
+        if (maxStatements > 0 && Arc.container().requestContext().isActive()) counter.increment();
+        return sql;
+    }
+}
@@ -0,0 +1,87 @@
+package org.opslog.diagnostics;
+
+import org.jboss.logging.Logger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports virtual threads pinned to their carrier, e.g. by blocking inside a {@code synchronized}
+ * block or a native frame, while serving {@code @RunOnVirtualThread} requests.
+ * <p>
+ * Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process. Every pinning longer than
+ * {@code opslog.virtual-threads.pinning.threshold} increments the
+ * {@code opslog.virtual_threads.pinned} counter; each distinct call site is logged once with its
+ * stack, so a library that pins on every request does not flood the log.
+ * </p>
+ */
+@ApplicationScoped
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger LOG = Logger.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    @ConfigProperty(name = "opslog.virtual-threads.pinning.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "opslog.virtual-threads.pinning.threshold", defaultValue = "20ms")
+    Duration threshold;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private Counter pinned;
+    private RecordingStream stream;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) return;
+        pinned = Counter.builder("opslog.virtual_threads.pinned")
+            .description("Virtual threads pinned to their carrier longer than the threshold")
+            .register(registry);
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::report);
+        stream.startAsync();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (stream != null) stream.close();
+    }
+
+    private void report(RecordedEvent event) {
+        pinned.increment();
+        if (event.getStackTrace() == null) return;
+        List<RecordedFrame> frames = event.getStackTrace().getFrames().stream()
+            .filter(RecordedFrame::isJavaFrame)
+            .limit(LOGGED_FRAMES)
+            .toList();
+        String stack = frames.stream()
+            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber())
+            .collect(Collectors.joining("\n\tat ", "\tat ", ""));
+        if (reportedSites.add(stack)) {
+            LOG.warnf("Virtual thread pinned for %d ms on %s:\n%s",
+                event.getDuration().toMillis(), event.getThread() == null ? "?" : event.getThread().getJavaName(), stack);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.opslog.dto;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * One row of a log list view: just the columns a listing renders, read by projection instead of
+ * loading the {@code Log} entity with its author and tags.
+ * <p>
+ * {@code tags} holds the titles of the log's tags in alphabetical order. {@code archived} logs
+ * were moved out of the database into the log archive and can no longer be loaded as entities.
+ * </p>
+ */
+public record LogListItem(long id, String title, ZonedDateTime timeOfEvent, String author, List<String> tags,
+                          boolean archived) {
+
+    public LogListItem {
+        tags = List.copyOf(tags);
+    }
+}
@@ -3,7 +3,11 @@ package org.opslog.entities;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.opslog.suggest.SuggestionListener;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -11,9 +15,20 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+// Read-mostly reference data, kept in the second-level cache (see application.properties)
 @Entity
+@Cacheable
+@BatchSize(size = 50) // authors of a page of logs missing from the cache are loaded together
+@EntityListeners(SuggestionListener.class)
 public class Account {
 
+    /** Second-level cache region of {@link #getGroups()}. */
+    public static final String GROUPS_CACHE_REGION = "org.opslog.entities.Account.groups";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
@@ -25,6 +40,7 @@ public class Account {
     private String password;    // hashed passwords only!
     // Many-to-many relationship to groups
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
         name = "account_groups",
         joinColumns = @JoinColumn(name = "account_id"),
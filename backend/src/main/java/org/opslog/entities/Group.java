@@ -1,5 +1,6 @@
 package org.opslog.entities;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -15,8 +16,11 @@ import jakarta.persistence.Column;
  * Represents a user group in the system.
  * Accounts can belong to multiple groups.
  * Some groups are built-in application groups (non-editable / non-removable).
+ * Groups are kept in the second-level cache.
+ * A group may set a retention period after which its logs move to the archive.
  */
 @Entity
+@Cacheable
 public class Group {
 
     @Id
@@ -37,6 +41,13 @@ public class Group {
     @Column(unique = true, nullable = true)
     private AppGroup appGroup;
 
+    /**
+     * Days logs visible to this group are kept in the database before they may be archived.
+     * Null keeps them forever. A log is only archived once every group it is visible to let it go.
+     */
+    @Column(name = "retention_days")
+    private Integer retentionDays;
+
     // --- Constructors ---
     protected Group() {}
 
@@ -65,5 +76,8 @@ public class Group {
     public AppGroup getAppGroup() { return appGroup; }
     public void setAppGroup(AppGroup appGroup) { this.appGroup = appGroup; }
 
+    public Integer getRetentionDays() { return retentionDays; }
+    public void setRetentionDays(Integer retentionDays) { this.retentionDays = retentionDays; }
+
 }
 
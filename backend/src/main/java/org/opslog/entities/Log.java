@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -14,7 +15,18 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Transient;
+
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 /**
  * Represents a log entry in the opslog system.
@@ -31,9 +43,21 @@ import jakarta.persistence.OneToMany;
  *     <li><b>TimeOfEvent</b> - the timestamp when the event occurred.</li>
  *     <li><b>Tags</b> - a set of associated tags, stored in a many-to-many relationship. Each tag is unique per log.</li>
  *     <li><b>Revisions</b> - a set of Log entries that are revisions of this log. Each revision maintains a reference to its parent.</li>
+ *     <li><b>Head</b> - whether this is the latest revision of its chain. Exactly one log per chain is head.</li>
  * </ul>
  * </p>
  * <p>
+ * Superseded revisions may be stored as deltas: their title and description hold only the edit
+ * against the parent's text (see {@link #compactAgainstParent()}). Heads and snapshot revisions are
+ * always stored in full. The getters rebuild delta-encoded text from the parent transparently.
+ * </p>
+ * <p>
+ * All associations are lazy. Which of them a query loads up front is chosen per use case with the
+ * entity graphs {@link #GRAPH_LISTING} and {@link #GRAPH_DETAIL}; anything else is loaded on first
+ * access in batches (tags and parents of up to {@value #FETCH_BATCH_SIZE} logs per statement, the
+ * revisions of all logs of a query in one subselect) rather than one statement per log.
+ * </p>
+ * <p>
  * Usage:
  * <pre>
  *     // Create a new log
@@ -47,10 +71,39 @@ import jakarta.persistence.OneToMany;
  * @see Calendar.java for calendar-related integrations with logs.
  */
 @Entity
+@BatchSize(size = Log.FETCH_BATCH_SIZE) // parents
+@NamedEntityGraph(name = Log.GRAPH_LISTING, attributeNodes = {
+    @NamedAttributeNode("createdBy"),
+    @NamedAttributeNode("revisedBy")
+})
+@NamedEntityGraph(name = Log.GRAPH_DETAIL, attributeNodes = {
+    @NamedAttributeNode("createdBy"),
+    @NamedAttributeNode("revisedBy"),
+    @NamedAttributeNode("parent"),
+    @NamedAttributeNode("tags")
+})
 public class Log {
 
+    /** Ids reserved per {@code log_seq} call; anything allocating ids outside Hibernate must use the same block size. */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /** Second-level cache region of {@link #getTags()}. */
+    public static final String TAGS_CACHE_REGION = "org.opslog.entities.Log.tags";
+
+    /** Entity graph for lists of logs: author and reviser, joined in the same statement. */
+    public static final String GRAPH_LISTING = "Log.listing";
+
+    /** Entity graph for showing a single log: author, reviser, parent and tags. */
+    public static final String GRAPH_DETAIL = "Log.detail";
+
+    /** Number of lazy associations of the same kind initialized together. */
+    public static final int FETCH_BATCH_SIZE = 50;
+
+    // Pooled sequence instead of IDENTITY: ids are assigned without an insert per row,
+    // which keeps Hibernate's JDBC insert batching enabled for Log.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "log_seq")
+    @SequenceGenerator(name = "log_seq", sequenceName = "log_seq", allocationSize = ID_ALLOCATION_SIZE)
     private long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -59,6 +112,8 @@ public class Log {
     private ZonedDateTime createdAt;
     private ZonedDateTime timeOfEvent;
     @ManyToMany(fetch = FetchType.LAZY, cascade = { CascadeType.PERSIST, CascadeType.MERGE })
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // tag ids per log; the tags come from the Tag cache
+    @BatchSize(size = FETCH_BATCH_SIZE)
     @JoinTable(
         name = "log_tags",
         joinColumns = @JoinColumn(name = "log_id"),
@@ -76,9 +131,28 @@ public class Log {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_id")
     private Log parent; // if log has been revised this is previous log
+    @Column(name = "root_id")
+    private Long rootId; // original log of the revision chain, null for originals
+    @Column(name = "is_head", nullable = false)
+    @ColumnDefault("true")
+    private boolean head = true; // latest revision of its chain, the only one shown in listings
+    @Column(name = "revision_depth", nullable = false)
+    @ColumnDefault("0")
+    private int revisionDepth; // number of revisions between this log and the chain's original
+
+    // -- Delta storage of superseded revisions
+    // When set, title and description hold TextDelta edits against the parent's text
+    @Column(name = "delta_encoded", nullable = false)
+    @ColumnDefault("false")
+    private boolean deltaEncoded;
+    @Transient
+    private String decodedTitle;
+    @Transient
+    private String decodedDescription;
 
     // Set of log revisions
     @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     private Set<Log> revisions = new HashSet<>();
     
 
@@ -108,18 +182,113 @@ public class Log {
     public void setCreatedBy(Account createdBy) { this.createdBy = createdBy; }
 
     public Set<Tag> getTags() { return tags; }
+    /** Sets the tags of a new log; existing logs are retagged through {@code LogRepository.updateTags}. */
     public void setTags(Set<Tag> tags) { this.tags = tags; }
 
-    public String getTitle() { return title; }
-    public void setTitle(String title) { this.title = title; }
+    /**
+     * The title. On a delta-encoded revision that was not {@link #decode() decoded}, this loads the
+     * parent and therefore needs an open session.
+     */
+    public String getTitle() {
+        if (!deltaEncoded) return title;
+        if (decodedTitle == null) decodedTitle = TextDelta.apply(parent.getTitle(), title);
+        return decodedTitle;
+    }
+    public void setTitle(String title) {
+        expand();
+        this.title = title;
+    }
 
-    public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
+    /** The description; see {@link #getTitle()} for delta-encoded revisions. */
+    public String getDescription() {
+        if (!deltaEncoded) return description;
+        if (decodedDescription == null) decodedDescription = TextDelta.apply(parent.getDescription(), description);
+        return decodedDescription;
+    }
+    public void setDescription(String description) {
+        expand();
+        this.description = description;
+    }
 
     // --- Revision Tracking --- //
     public Log getParent() { return parent; }
     public void setParent(Log parent) { this.parent = parent; }
 
+    public Long getRootId() { return rootId; }
+    public void setRootId(Long rootId) { this.rootId = rootId; }
+
+    /** Id of the original log of this log's revision chain (its own id for originals). */
+    public Long getChainRootId() { return rootId != null ? rootId : getId(); }
+
+    public boolean isHead() { return head; }
+    public void setHead(boolean head) { this.head = head; }
+
+    public int getRevisionDepth() { return revisionDepth; }
+    public void setRevisionDepth(int revisionDepth) { this.revisionDepth = revisionDepth; }
+
+    public boolean isDeltaEncoded() { return deltaEncoded; }
+
+    /**
+     * Stores title and description as deltas against the parent when that is smaller.
+     * Only call this on superseded revisions: listings and full-text search read the stored
+     * columns directly and expect heads in full, and a delta is only valid as long as the
+     * parent's text does not change.
+     *
+     * @return whether the log is now delta-encoded
+     */
+    public boolean compactAgainstParent() {
+        if (deltaEncoded) return true;
+        if (parent == null) return false;
+
+        String titleDelta = TextDelta.encode(parent.getTitle(), title);
+        String descriptionDelta = TextDelta.encode(parent.getDescription(), description);
+        if (TextDelta.sizeChange(title, titleDelta) + TextDelta.sizeChange(description, descriptionDelta) >= 0) {
+            return false;
+        }
+        decodedTitle = title;
+        decodedDescription = description;
+        title = titleDelta;
+        description = descriptionDelta;
+        deltaEncoded = true;
+        return true;
+    }
+
+    /**
+     * Resolves the text of a delta-encoded revision now, walking back to the nearest snapshot, so
+     * {@link #getTitle()} and {@link #getDescription()} keep working once the log is detached.
+     * Call it while the log is managed; the repository methods returning revisions already do.
+     *
+     * @return this log
+     */
+    public Log decode() {
+        if (deltaEncoded) {
+            getTitle();
+            getDescription();
+        }
+        return this;
+    }
+
+    /**
+     * Makes this log the head of its chain again, e.g. after the revision superseding it was deleted.
+     * Heads are always stored in full, so a delta-encoded log is expanded first.
+     */
+    public void promoteToHead() {
+        expand();
+        head = true;
+    }
+
+    /** Turns a delta-encoded log back into a full copy. */
+    private void expand() {
+        if (!deltaEncoded) return;
+        String fullTitle = getTitle();
+        String fullDescription = getDescription();
+        title = fullTitle;
+        description = fullDescription;
+        deltaEncoded = false;
+        decodedTitle = null;
+        decodedDescription = null;
+    }
+
     public Account getRevisedBy() { return revisedBy; }
     public void setRevisedBy(Account revisedBy) { this.revisedBy = revisedBy; }
     
@@ -130,8 +299,14 @@ public class Log {
     public void setRevisions(Set<Log> revisions) { this.revisions = revisions; }
 
     // --- Revising method --- //
+    // The revision becomes the chain's head. This assumes this log is the current head;
+    // LogRepository.addRevision also handles revising an older entry of the chain.
     public void addRevision(Log revision, Account account) {
         revision.setParent(this);
+        revision.setRootId(getChainRootId());
+        revision.setRevisionDepth(revisionDepth + 1);
+        revision.setHead(true);
+        this.head = false;
         revision.setRevisedBy(account);
         revision.setRevisedAt(ZonedDateTime.now());
         this.revisions.add(revision);
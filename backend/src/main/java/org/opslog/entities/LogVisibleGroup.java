@@ -0,0 +1,85 @@
+package org.opslog.entities;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * Denormalized visibility row: the log {@code logId} is visible to members of group {@code groupId}.
+ * <p>
+ * A log is visible to every group its creator belongs to. Instead of resolving that through
+ * {@code Account -> account_groups} for every row of every query, the pairs are materialized here
+ * and kept up to date by {@link org.opslog.repositories.LogVisibilityRepository} whenever logs are
+ * written or group membership changes. Rows are removed together with their log.
+ * </p>
+ */
+@Entity
+@IdClass(LogVisibleGroup.Key.class)
+@Table(
+    name = "log_visible_group",
+    indexes = @Index(name = "idx_log_visible_group_group_log", columnList = "group_id, log_id")
+)
+public class LogVisibleGroup {
+
+    @Id
+    @Column(name = "log_id")
+    private long logId;
+
+    @Id
+    @Column(name = "group_id")
+    private long groupId;
+
+    // Only mapped to get an ON DELETE CASCADE foreign key to the log table
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "log_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Log log;
+
+    protected LogVisibleGroup() {}
+
+    public LogVisibleGroup(long logId, long groupId) {
+        this.logId = logId;
+        this.groupId = groupId;
+    }
+
+    public long getLogId() { return logId; }
+
+    public long getGroupId() { return groupId; }
+
+    /** Composite primary key (log_id, group_id). */
+    public static class Key implements Serializable {
+        private long logId;
+        private long groupId;
+
+        public Key() {}
+
+        public Key(long logId, long groupId) {
+            this.logId = logId;
+            this.groupId = groupId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return logId == other.logId && groupId == other.groupId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(logId, groupId);
+        }
+    }
+}
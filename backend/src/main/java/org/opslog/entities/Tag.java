@@ -1,6 +1,10 @@
 package org.opslog.entities;
 
+import org.opslog.suggest.SuggestionListener;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -9,8 +13,11 @@ import jakarta.persistence.Id;
  * Tags are used to flag logs for searchability and visual identification.
  * Each Tag has a title, optional description, and a color for visual cues.
  * Tags are meant to be unique per log and can be associated with multiple logs.
+ * Tags are kept in the second-level cache.
  */
 @Entity
+@Cacheable
+@EntityListeners(SuggestionListener.class)
 public class Tag {
 
     @Id
@@ -0,0 +1,52 @@
+package org.opslog.entities;
+
+/**
+ * Compact encoding of a text as an edit of another text.
+ * <p>
+ * Consecutive revisions of a log usually differ in one place, so a revision is stored as the
+ * length of the prefix and suffix it shares with its base plus the replaced middle part:
+ * {@code <prefix>:<suffix>:<middle>}. A {@code null} text is encoded as {@code null}; a
+ * {@code null} base is treated as empty.
+ * </p>
+ */
+public final class TextDelta {
+
+    private TextDelta() {}
+
+    static String encode(String base, String target) {
+        if (target == null) return null;
+        String from = base == null ? "" : base;
+
+        int max = Math.min(from.length(), target.length());
+        int prefix = 0;
+        while (prefix < max && from.charAt(prefix) == target.charAt(prefix)) prefix++;
+        int suffix = 0;
+        while (suffix < max - prefix
+               && from.charAt(from.length() - 1 - suffix) == target.charAt(target.length() - 1 - suffix)) {
+            suffix++;
+        }
+        // Do not split surrogate pairs: the middle must stay a valid string on its own
+        if (prefix > 0 && Character.isHighSurrogate(target.charAt(prefix - 1))) prefix--;
+        if (suffix > 0 && Character.isLowSurrogate(target.charAt(target.length() - suffix))) suffix--;
+
+        return prefix + ":" + suffix + ":" + target.substring(prefix, target.length() - suffix);
+    }
+
+    public static String apply(String base, String delta) {
+        if (delta == null) return null;
+        String from = base == null ? "" : base;
+
+        int first = delta.indexOf(':');
+        int second = delta.indexOf(':', first + 1);
+        if (first < 0 || second < 0) throw new IllegalStateException("Malformed text delta");
+        int prefix = Integer.parseInt(delta, 0, first, 10);
+        int suffix = Integer.parseInt(delta, first + 1, second, 10);
+
+        return from.substring(0, prefix) + delta.substring(second + 1) + from.substring(from.length() - suffix);
+    }
+
+    /** Encoded size minus raw size; negative when the delta saves space. */
+    static int sizeChange(String raw, String delta) {
+        return (delta == null ? 0 : delta.length()) - (raw == null ? 0 : raw.length());
+    }
+}
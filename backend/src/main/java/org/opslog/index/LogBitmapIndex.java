@@ -0,0 +1,318 @@
+package org.opslog.index;
+
+import org.jboss.logging.Logger;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.jpa.HibernateHints;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of log ids as compressed (Roaring) bitmaps: one per group the logs are visible
+ * to, one per tag and one per author, plus the set of chain heads.
+ * <p>
+ * Combined filters such as "visible to my groups, tagged X or Y, written by A or B" are answered by
+ * OR-ing the bitmaps of each filter and AND-ing the results, which takes microseconds even for
+ * millions of logs. Only the ids of the requested page are returned; the rows themselves are then
+ * fetched from PostgreSQL by primary key.
+ * </p>
+ * <p>
+ * The index is built in the background at startup and afterwards maintained from
+ * {@link LogIndexChange} events, which are applied after the writing transaction committed by a
+ * single updater thread, in commit order. Until the first build finished {@link #isReady()} is
+ * false and callers query the database instead.
+ * </p>
+ * <p>
+ * Writes of other nodes arrive two ways. Log inserts are announced on the log notification channel,
+ * and the log tail listener has the index reload the chain of each one ({@link #refreshChain}).
+ * Everything else, such as deletes, tag edits and membership changes, is picked up by the full
+ * rebuild every {@code opslog.index.bitmap.rebuild-interval}. Until then such a change may be
+ * missing from the candidates; callers re-check every candidate against the database, so the index
+ * never returns rows the database does not confirm.
+ * </p>
+ */
+@ApplicationScoped
+public class LogBitmapIndex {
+
+    private static final Logger LOG = Logger.getLogger(LogBitmapIndex.class);
+
+    /** Logs visible to any of the groups, tagged with any of the tags and created by any of the authors. */
+    public record Filter(long[] groupIds, long[] tagIds, long[] authorIds) {
+        /** Empty tag or author arrays do not restrict the result. */
+        public Filter {
+            groupIds = groupIds.clone();
+            tagIds = tagIds == null ? new long[0] : tagIds.clone();
+            authorIds = authorIds == null ? new long[0] : authorIds.clone();
+        }
+    }
+
+    /** Bitmaps of a set of logs; either the live index or rows freshly loaded for a change. */
+    private static final class Bitmaps {
+        final Map<Long, Roaring64Bitmap> byGroup = new HashMap<>();
+        final Map<Long, Roaring64Bitmap> byTag = new HashMap<>();
+        final Map<Long, Roaring64Bitmap> byAuthor = new HashMap<>();
+        final Roaring64Bitmap heads = new Roaring64Bitmap();
+        final Roaring64Bitmap logs = new Roaring64Bitmap();
+
+        static void add(Map<Long, Roaring64Bitmap> bitmaps, long key, long logId) {
+            bitmaps.computeIfAbsent(key, k -> new Roaring64Bitmap()).addLong(logId);
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Bitmaps index = new Bitmaps();
+    private volatile boolean ready;
+    private ExecutorService updater;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "opslog.index.bitmap.enabled", defaultValue = "true")
+    boolean enabled;
+
+    /** Rows fetched per round-trip while loading. */
+    @ConfigProperty(name = "opslog.index.bitmap.fetch-size", defaultValue = "10000")
+    int fetchSize;
+
+    // Runs after the schema steps, which observe the same event with the default priority
+    void onStart(@Observes @Priority(Interceptor.Priority.LIBRARY_AFTER) StartupEvent event) {
+        if (!enabled) return;
+        updater = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "opslog-log-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        updater.execute(this::build);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (updater != null) updater.shutdownNow();
+    }
+
+    /** Whether the index has been built and can answer queries. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) LogIndexChange change) {
+        execute(() -> apply(change));
+    }
+
+    /** Reloads the chain with the given original, e.g. after another node inserted a revision of it. */
+    public void refreshChain(long rootId) {
+        execute(() -> apply(LogIndexChange.chain(rootId)));
+    }
+
+    /** Schedules a full rebuild from the database, unless one is already waiting to run. */
+    public void rebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) return;
+        execute(() -> {
+            rebuildQueued.set(false);
+            build();
+        });
+    }
+
+    @Scheduled(every = "${opslog.index.bitmap.rebuild-interval}", delayed = "${opslog.index.bitmap.rebuild-interval}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRebuild() {
+        if (ready) rebuild();
+    }
+
+    private void execute(Runnable task) {
+        if (updater == null) return;
+        try {
+            updater.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    /** Loads the whole index from the database and swaps it in. Runs on the updater thread only. */
+    private void build() {
+        try {
+            long started = System.nanoTime();
+            Bitmaps loaded = QuarkusTransaction.requiringNew().call(() -> load("TRUE", null));
+            lock.writeLock().lock();
+            try {
+                index = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            LOG.infof("Log bitmap index built: %d logs, %d groups, %d tags, %d authors in %d ms",
+                loaded.logs.getLongCardinality(), loaded.byGroup.size(), loaded.byTag.size(),
+                loaded.byAuthor.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            LOG.error("Building the log bitmap index failed; log filters fall back to SQL", e);
+        }
+    }
+
+    private void apply(LogIndexChange change) {
+        if (change.scope() == LogIndexChange.Scope.ALL) {
+            build();
+            return;
+        }
+        try {
+            String scope = switch (change.scope()) {
+                case LOGS -> "l.id = ANY(?1)";
+                case AUTHORS -> "(l.create_by_id = ANY(?1) OR l.root_id IN (SELECT r.id FROM log r WHERE r.create_by_id = ANY(?1)))";
+                case CHAINS -> "coalesce(l.root_id, l.id) = ANY(?1)";
+                case ALL -> throw new IllegalStateException();
+            };
+            Long[] ids = Arrays.stream(change.ids()).boxed().toArray(Long[]::new);
+            Bitmaps loaded = QuarkusTransaction.requiringNew().call(() -> load(scope, ids));
+
+            // Deleted logs are no longer found: explicitly named ids, and the logs the index holds
+            // for changed authors, are always cleared. The index does not know the members of a
+            // chain, so rows deleted from chains are named with a LOGS change. This thread is the only
+            // writer of the index, so it reads the author bitmaps without the lock.
+            Roaring64Bitmap touched = loaded.logs.clone();
+            if (change.scope() == LogIndexChange.Scope.LOGS) touched.add(change.ids());
+            if (change.scope() == LogIndexChange.Scope.AUTHORS) touched.or(union(index.byAuthor, change.ids()));
+            merge(touched, loaded);
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "Updating the log bitmap index for %s failed; rebuilding", change.scope());
+            build();
+        }
+    }
+
+    private Bitmaps load(String scope, Long[] ids) {
+        Bitmaps loaded = new Bitmaps();
+        try (Stream<Object[]> rows = rows("SELECT l.id, l.create_by_id, l.is_head FROM log l WHERE " + scope, ids)) {
+            rows.forEach(row -> {
+                long logId = ((Number) row[0]).longValue();
+                loaded.logs.addLong(logId);
+                Bitmaps.add(loaded.byAuthor, ((Number) row[1]).longValue(), logId);
+                if ((Boolean) row[2]) loaded.heads.addLong(logId);
+            });
+        }
+        try (Stream<Object[]> rows = rows("SELECT v.log_id, v.group_id FROM log_visible_group v " +
+                "JOIN log l ON l.id = v.log_id WHERE " + scope, ids)) {
+            rows.forEach(row -> Bitmaps.add(loaded.byGroup, ((Number) row[1]).longValue(), ((Number) row[0]).longValue()));
+        }
+        try (Stream<Object[]> rows = rows("SELECT lt.log_id, lt.tag_id FROM log_tags lt " +
+                "JOIN log l ON l.id = lt.log_id WHERE " + scope, ids)) {
+            rows.forEach(row -> Bitmaps.add(loaded.byTag, ((Number) row[1]).longValue(), ((Number) row[0]).longValue()));
+        }
+        return loaded;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Stream<Object[]> rows(String sql, Long[] ids) {
+        Query query = entityManager.createNativeQuery(sql).setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        if (ids != null) query.setParameter(1, ids);
+        return query.getResultStream();
+    }
+
+    private void merge(Roaring64Bitmap touched, Bitmaps loaded) {
+        lock.writeLock().lock();
+        try {
+            clear(index.byGroup, touched);
+            clear(index.byTag, touched);
+            clear(index.byAuthor, touched);
+            index.heads.andNot(touched);
+            index.logs.andNot(touched);
+
+            add(index.byGroup, loaded.byGroup);
+            add(index.byTag, loaded.byTag);
+            add(index.byAuthor, loaded.byAuthor);
+            index.heads.or(loaded.heads);
+            index.logs.or(loaded.logs);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void clear(Map<Long, Roaring64Bitmap> bitmaps, Roaring64Bitmap touched) {
+        bitmaps.values().removeIf(bitmap -> {
+            bitmap.andNot(touched);
+            return bitmap.isEmpty();
+        });
+    }
+
+    private static void add(Map<Long, Roaring64Bitmap> bitmaps, Map<Long, Roaring64Bitmap> additions) {
+        additions.forEach((key, bitmap) -> bitmaps.merge(key, bitmap, (current, added) -> {
+            current.or(added);
+            return current;
+        }));
+    }
+
+    /**
+     * Selects the ids of chain heads matching the filter.
+     *
+     * @param afterId   cursor: only ids beyond it in the scan direction, or {@code null} for the start
+     * @param ascending scan from low to high ids (older first) instead of newest first
+     * @param limit     maximum number of ids returned
+     * @return matching ids in scan order
+     */
+    public List<Long> select(Filter filter, Long afterId, boolean ascending, int limit) {
+        Roaring64Bitmap result = matching(filter);
+        LongIterator ids;
+        if (ascending) {
+            ids = afterId == null ? result.getLongIterator() : result.getLongIteratorFrom(afterId + 1);
+        } else {
+            ids = afterId == null ? result.getReverseLongIterator() : result.getReverseLongIteratorFrom(afterId - 1);
+        }
+        List<Long> page = new ArrayList<>(limit);
+        while (page.size() < limit && ids.hasNext()) {
+            page.add(ids.next());
+        }
+        return page;
+    }
+
+    /** Number of chain heads matching the filter. */
+    public long count(Filter filter) {
+        return matching(filter).getLongCardinality();
+    }
+
+    /** A new bitmap of the chain heads matching the filter. */
+    private Roaring64Bitmap matching(Filter filter) {
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = union(index.byGroup, filter.groupIds());
+            result.and(index.heads);
+            if (filter.tagIds().length > 0) result.and(union(index.byTag, filter.tagIds()));
+            if (filter.authorIds().length > 0) result.and(union(index.byAuthor, filter.authorIds()));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** A new bitmap holding the union of the bitmaps of the given keys. */
+    private static Roaring64Bitmap union(Map<Long, Roaring64Bitmap> bitmaps, long[] keys) {
+        Roaring64Bitmap union = new Roaring64Bitmap();
+        for (long key : keys) {
+            Roaring64Bitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) union.or(bitmap);
+        }
+        return union;
+    }
+}
@@ -0,0 +1,44 @@
+package org.opslog.index;
+
+import java.util.Collection;
+
+/**
+ * CDI event describing log rows whose visibility, tags, author or head flag changed.
+ * Applied to the {@link LogBitmapIndex} once the surrounding transaction committed.
+ */
+public record LogIndexChange(Scope scope, long[] ids) {
+
+    public enum Scope {
+        /** The logs with the given ids (including deleted ones). */
+        LOGS,
+        /** All logs created by the accounts with the given ids, and the revisions of chains they started. */
+        AUTHORS,
+        /**
+         * All revisions of the chains whose originals have the given ids. Logs deleted from the
+         * chains are not found by it and have to be named with {@link #LOGS} as well.
+         */
+        CHAINS,
+        /** Everything; the index is rebuilt. */
+        ALL
+    }
+
+    public static LogIndexChange logs(Collection<Long> logIds) {
+        return new LogIndexChange(Scope.LOGS, logIds.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    public static LogIndexChange log(long logId) {
+        return new LogIndexChange(Scope.LOGS, new long[] { logId });
+    }
+
+    public static LogIndexChange author(long accountId) {
+        return new LogIndexChange(Scope.AUTHORS, new long[] { accountId });
+    }
+
+    public static LogIndexChange chain(long rootId) {
+        return new LogIndexChange(Scope.CHAINS, new long[] { rootId });
+    }
+
+    public static LogIndexChange all() {
+        return new LogIndexChange(Scope.ALL, new long[0]);
+    }
+}
@@ -0,0 +1,18 @@
+package org.opslog.ingest;
+
+import java.time.ZonedDateTime;
+import java.util.Set;
+
+/**
+ * A log entry to be ingested in bulk.
+ * <p>
+ * The creator and tags are referenced by id so a batch can be written without loading
+ * the referenced accounts and tags first.
+ * </p>
+ */
+public record LogDraft(long createdById, ZonedDateTime timeOfEvent, Set<Long> tagIds, String title, String description) {
+
+    public LogDraft {
+        tagIds = tagIds == null ? Set.of() : Set.copyOf(tagIds);
+    }
+}
@@ -0,0 +1,92 @@
+package org.opslog.ingest;
+
+import org.opslog.entities.Account;
+import org.opslog.entities.Log;
+import org.opslog.entities.Tag;
+import org.opslog.repositories.LogRepository;
+import org.opslog.repositories.LogVisibilityRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk ingestion of new log entries.
+ * <p>
+ * Unlike {@link LogRepository#persistAndFlush(Log)}, which flushes after every entry, the drafts
+ * are persisted in chunks of {@code opslog.ingest.batch-size}: ids come from the pooled
+ * {@code log_seq} sequence, Hibernate sends the log and {@code log_tags} inserts as JDBC batches
+ * (rewritten into multi-row inserts by the PostgreSQL driver), the visibility rows of the chunk are
+ * written with one statement, and the persistence context is cleared before the next chunk.
+ * </p>
+ */
+@ApplicationScoped
+public class LogIngestService {
+
+    @Inject
+    LogRepository logRepository;
+
+    @Inject
+    LogVisibilityRepository logVisibilityRepository;
+
+    @Inject
+    EntityManager entityManager;
+
+    /** Logs persisted between two flushes; also bounds the persistence context size. */
+    @ConfigProperty(name = "opslog.ingest.batch-size", defaultValue = "500")
+    int batchSize;
+
+    /**
+     * Persists all drafts in a single transaction.
+     *
+     * @return the ids of the created logs, in the order of the drafts
+     */
+    @Transactional
+    public List<Long> ingest(List<LogDraft> drafts) {
+        List<Long> ids = new ArrayList<>(drafts.size());
+        List<Long> chunk = new ArrayList<>(Math.min(batchSize, drafts.size()));
+        Map<Long, Account> accounts = new HashMap<>();
+        Map<Long, Tag> tags = new HashMap<>();
+
+        for (LogDraft draft : drafts) {
+            Account creator = accounts.computeIfAbsent(draft.createdById(),
+                id -> entityManager.getReference(Account.class, id));
+            Set<Tag> logTags = new HashSet<>();
+            for (Long tagId : draft.tagIds()) {
+                logTags.add(tags.computeIfAbsent(tagId, id -> entityManager.getReference(Tag.class, id)));
+            }
+
+            Log log = new Log(creator, draft.timeOfEvent(), logTags, draft.title(), draft.description());
+            // revised_by is NOT NULL: an original entry counts as last revised by its creator
+            log.setRevisedBy(creator);
+            logRepository.persist(log);
+            chunk.add(log.getId());
+
+            if (chunk.size() == batchSize) {
+                flushChunk(chunk, ids);
+                accounts.clear();
+                tags.clear();
+            }
+        }
+        if (!chunk.isEmpty()) flushChunk(chunk, ids);
+        return ids;
+    }
+
+    private void flushChunk(List<Long> chunk, List<Long> ids) {
+        entityManager.flush();
+        logVisibilityRepository.grantForLogs(chunk);
+        entityManager.clear();
+        ids.addAll(chunk);
+        chunk.clear();
+    }
+}
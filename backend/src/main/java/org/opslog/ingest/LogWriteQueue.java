@@ -0,0 +1,169 @@
+package org.opslog.ingest;
+
+import org.jboss.logging.Logger;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue in front of {@link LogIngestService} that group-commits concurrent writes.
+ * <p>
+ * Producers {@link #submit(LogDraft) submit} drafts into a bounded queue and get a future that
+ * completes with the log id once its transaction committed. A single writer thread takes the first
+ * waiting draft, keeps collecting for at most {@code opslog.ingest.queue.max-latency} or until
+ * {@code opslog.ingest.queue.max-batch} drafts are gathered, and commits them all in one transaction.
+ * Under a burst this turns one flush and commit per log into one per batch, while a lone write
+ * waits no longer than the latency bound.
+ * </p>
+ * <p>
+ * When the queue is full, producers block (backpressure) for up to
+ * {@code opslog.ingest.queue.offer-timeout} before the submission is rejected. If a batch fails,
+ * its drafts are retried one by one so only the offending drafts fail. Every returned future
+ * completes: drafts still queued when the writer stops are failed with a
+ * {@link RejectedExecutionException}.
+ * </p>
+ */
+@ApplicationScoped
+public class LogWriteQueue {
+
+    private static final Logger LOG = Logger.getLogger(LogWriteQueue.class);
+
+    @Inject
+    LogIngestService ingestService;
+
+    @ConfigProperty(name = "opslog.ingest.queue.capacity", defaultValue = "10000")
+    int capacity;
+
+    @ConfigProperty(name = "opslog.ingest.queue.max-batch", defaultValue = "500")
+    int maxBatch;
+
+    @ConfigProperty(name = "opslog.ingest.queue.max-latency", defaultValue = "5ms")
+    Duration maxLatency;
+
+    @ConfigProperty(name = "opslog.ingest.queue.offer-timeout", defaultValue = "1s")
+    Duration offerTimeout;
+
+    private record Pending(LogDraft draft, CompletableFuture<Long> result) {}
+
+    private BlockingQueue<Pending> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    void onStart(@Observes StartupEvent event) {
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        writer = new Thread(this::drainLoop, "opslog-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    void onStop(@Observes ShutdownEvent event) throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        // Whatever the writer left behind (timeout, interrupt) is failed rather than left waiting
+        rejectQueued("Log write queue shut down before the log was written");
+    }
+
+    /**
+     * Queues a draft for writing, blocking while the queue is full.
+     *
+     * @return future completed with the id of the persisted log, or exceptionally if the write failed
+     * @throws RejectedExecutionException if the queue stayed full for the whole offer timeout or is shut down
+     */
+    public CompletableFuture<Long> submit(LogDraft draft) throws InterruptedException {
+        if (!running) throw new RejectedExecutionException("Log write queue is shut down");
+        Pending pending = new Pending(draft, new CompletableFuture<>());
+        if (!queue.offer(pending, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new RejectedExecutionException("Log write queue is full");
+        }
+        // Shut down while offering: unless the writer or onStop already took it, nobody else will
+        if (!running && queue.remove(pending)) throw new RejectedExecutionException("Log write queue is shut down");
+        return pending.result();
+    }
+
+    /** Number of drafts waiting to be written. */
+    public int backlog() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                long deadline = System.nanoTime() + maxLatency.toNanos();
+                while (batch.size() < maxBatch) {
+                    // Take whatever is already queued without waiting, then wait out the latency budget
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) continue;
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(batch, new RejectedExecutionException("Log writer interrupted before the log was written"));
+                rejectQueued("Log writer interrupted before the log was written");
+                return;
+            } catch (RuntimeException e) {
+                LOG.error("Unexpected failure in log writer", e);
+                fail(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void rejectQueued(String reason) {
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) LOG.warnf("%s: %d queued logs rejected", reason, left.size());
+        fail(left, new RejectedExecutionException(reason));
+    }
+
+    /** Fails the drafts whose future is not completed yet. */
+    private static void fail(List<Pending> pending, Throwable cause) {
+        for (Pending p : pending) p.result().completeExceptionally(cause);
+    }
+
+    private void write(List<Pending> batch) {
+        try {
+            List<Long> ids = ingestService.ingest(batch.stream().map(Pending::draft).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(ids.get(i));
+            }
+        } catch (RuntimeException batchFailure) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(batchFailure);
+                return;
+            }
+            LOG.warnf("Group commit of %d logs failed, retrying individually: %s", batch.size(), batchFailure.getMessage());
+            for (Pending pending : batch) {
+                try {
+                    pending.result().complete(ingestService.ingest(List.of(pending.draft())).get(0));
+                } catch (RuntimeException e) {
+                    pending.result().completeExceptionally(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package org.opslog.ingest.backfill;
+
+import org.jboss.logging.Logger;
+import org.opslog.entities.Log;
+import org.opslog.repositories.AccountRepository;
+import org.opslog.repositories.LogVisibilityRepository;
+import org.opslog.repositories.TagRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk importer for historical logs, streaming CSV or NDJSON input into PostgreSQL with
+ * {@code COPY FROM STDIN}.
+ * <p>
+ * Usernames and tag titles are resolved through in-memory maps loaded once from
+ * {@link AccountRepository} and {@link TagRepository}; records referencing unknown ones are
+ * rejected and reported. Accepted records are written in batches of {@code opslog.import.batch-size},
+ * each in its own transaction:
+ * <ol>
+ *     <li>ids are reserved from {@code log_seq} in blocks of {@link Log#ID_ALLOCATION_SIZE}, the same
+ *     way Hibernate's pooled optimizer does, so they never collide with ORM inserts</li>
+ *     <li>{@code log} and {@code log_tags} rows are sent with one COPY each</li>
+ *     <li>the {@code log_visible_group} rows are derived with one INSERT ... SELECT</li>
+ * </ol>
+ * Each batch advances the {@link ImportCheckpoint} within the batch's transaction, so the checkpoint
+ * commits atomically with the batch's rows: an interrupted import resumes after the last committed
+ * batch and never writes one twice. A failing batch is rolled back, reported and skipped.
+ * </p>
+ */
+@ApplicationScoped
+public class CopyLogImporter {
+
+    private static final Logger LOG = Logger.getLogger(CopyLogImporter.class);
+
+    private static final String COPY_LOG =
+        "COPY log (id, create_by_id, revised_by_id, created_at, time_of_event, title, description, " +
+        "parent_id, root_id, is_head, revision_depth, revised_at) FROM STDIN WITH (FORMAT csv)";
+    private static final String COPY_LOG_TAGS = "COPY log_tags (log_id, tag_id) FROM STDIN WITH (FORMAT csv)";
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    AccountRepository accountRepository;
+
+    @Inject
+    TagRepository tagRepository;
+
+    @Inject
+    LogVisibilityRepository logVisibilityRepository;
+
+    @ConfigProperty(name = "opslog.import.batch-size", defaultValue = "10000")
+    int batchSize;
+
+    /**
+     * A record resolved to ids, ready to be written. {@code parent} is the index of the revised
+     * row within the same batch, or -1 for an original; a revision is created and revised by
+     * {@code accountId} at {@code createdAt}, like one added through {@code addRevision}.
+     */
+    record Row(long number, long accountId, ZonedDateTime createdAt, ZonedDateTime timeOfEvent,
+               long[] tagIds, String title, String description, int parent) {
+
+        Row(long number, long accountId, ZonedDateTime createdAt, ZonedDateTime timeOfEvent,
+            long[] tagIds, String title, String description) {
+            this(number, accountId, createdAt, timeOfEvent, tagIds, title, description, -1);
+        }
+    }
+
+    /**
+     * Imports a file, resuming from the checkpoint of its absolute path if a previous run was
+     * interrupted. The checkpoint is removed once the whole file has been processed.
+     */
+    public ImportReport importFile(Path file, ImportRecordReader.Format format) throws IOException {
+        ImportCheckpoint checkpoint = ImportCheckpoint.forInput(file);
+        try (Reader input = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             ImportRecordReader reader = ImportRecordReader.of(format, input)) {
+            ImportReport report = importRecords(reader, checkpoint);
+            QuarkusTransaction.requiringNew().run(() -> checkpoint.clear(entityManager));
+            return report;
+        }
+    }
+
+    /**
+     * Imports all records of the reader. Records up to the checkpoint are read but skipped.
+     */
+    public ImportReport importRecords(ImportRecordReader reader, ImportCheckpoint checkpoint) throws IOException {
+        long started = System.nanoTime();
+        long resumeAfter = QuarkusTransaction.requiringNew().call(() -> checkpoint.load(entityManager));
+        ImportReport report = new ImportReport();
+
+        Map<String, Long> accounts = QuarkusTransaction.requiringNew().call(accountRepository::findIdsByUsername);
+        Map<String, Long> tags = QuarkusTransaction.requiringNew().call(tagRepository::findIdsByTitle);
+        if (resumeAfter > 0) LOG.infof("Resuming import after record %d", resumeAfter);
+
+        List<Row> batch = new ArrayList<>(batchSize);
+        long number = 0;
+        while (true) {
+            ImportRecord record;
+            try {
+                record = reader.next();
+                if (record == null) break;
+                number++;
+            } catch (MalformedRecordException e) {
+                number++;
+                if (number > resumeAfter) report.rejected(number, e.getMessage());
+                continue;
+            }
+            if (number <= resumeAfter) {
+                report.skipped(1);
+                continue;
+            }
+
+            Row row = resolve(number, record, accounts, tags, report);
+            if (row != null) batch.add(row);
+            if (batch.size() == batchSize) {
+                write(batch, report, checkpoint, number);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, report, checkpoint, number);
+        } else {
+            long handled = number;
+            QuarkusTransaction.requiringNew().run(() -> checkpoint.save(entityManager, handled));
+        }
+
+        report.elapsed(Duration.ofNanos(System.nanoTime() - started));
+        LOG.infof("Import finished: %s", report);
+        return report;
+    }
+
+    private Row resolve(long number, ImportRecord record, Map<String, Long> accounts, Map<String, Long> tags,
+                        ImportReport report) {
+        Long accountId = accounts.get(record.username());
+        if (accountId == null) {
+            report.rejected(number, "Unknown username: " + record.username());
+            return null;
+        }
+        long[] tagIds = new long[record.tags().size()];
+        for (int i = 0; i < tagIds.length; i++) {
+            Long tagId = tags.get(record.tags().get(i));
+            if (tagId == null) {
+                report.rejected(number, "Unknown tag: " + record.tags().get(i));
+                return null;
+            }
+            tagIds[i] = tagId;
+        }
+        return new Row(number, accountId, record.createdAt(), record.timeOfEvent(),
+            Arrays.stream(tagIds).distinct().toArray(), record.title(), record.description());
+    }
+
+    /** Writes one batch in its own transaction; a failure is reported, not thrown. */
+    void write(List<Row> batch, ImportReport report) {
+        write(batch, report, null, 0);
+    }
+
+    /**
+     * Writes one batch and advances the checkpoint to {@code handled} records in the same
+     * transaction. A failed batch wrote nothing, so the checkpoint is then advanced on its own.
+     */
+    private void write(List<Row> batch, ImportReport report, ImportCheckpoint checkpoint, long handled) {
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                copy(batch);
+                if (checkpoint != null) checkpoint.save(entityManager, handled);
+            });
+            report.imported(batch.size());
+        } catch (RuntimeException e) {
+            long first = batch.get(0).number();
+            long last = batch.get(batch.size() - 1).number();
+            LOG.warnf(e, "Import batch of records %d-%d failed", first, last);
+            report.failed(first, last, batch.size(), String.valueOf(e.getMessage()));
+            if (checkpoint != null) QuarkusTransaction.requiringNew().run(() -> checkpoint.save(entityManager, handled));
+        }
+    }
+
+    private void copy(List<Row> batch) {
+        long[] ids = allocateIds(batch.size());
+        ZonedDateTime now = ZonedDateTime.now();
+
+        // Revisions point at earlier rows of the batch; only the last entry of a chain is its head
+        int[] roots = new int[batch.size()];
+        int[] depths = new int[batch.size()];
+        boolean[] superseded = new boolean[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            int parent = batch.get(i).parent();
+            roots[i] = parent < 0 ? i : roots[parent];
+            depths[i] = parent < 0 ? 0 : depths[parent] + 1;
+            if (parent >= 0) superseded[parent] = true;
+        }
+
+        StringBuilder logs = new StringBuilder(batch.size() * 256);
+        StringBuilder logTags = new StringBuilder(batch.size() * 16);
+        List<Long> logIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Row row = batch.get(i);
+            long id = ids[i];
+            logIds.add(id);
+            // revised_by is NOT NULL: an original entry counts as last revised by its creator
+            logs.append(id).append(',')
+                .append(row.accountId()).append(',')
+                .append(row.accountId()).append(',')
+                .append(timestamp(row.createdAt() != null ? row.createdAt() : now)).append(',')
+                .append(timestamp(row.timeOfEvent())).append(',');
+            appendText(logs, row.title());
+            logs.append(',');
+            appendText(logs, row.description());
+            logs.append(',');
+            if (row.parent() >= 0) {
+                logs.append(ids[row.parent()]).append(',').append(ids[roots[i]]).append(',');
+            } else {
+                logs.append(",,");
+            }
+            logs.append(!superseded[i]).append(',').append(depths[i]).append(',');
+            if (row.parent() >= 0) logs.append(timestamp(row.createdAt()));
+            logs.append('\n');
+            for (long tagId : row.tagIds()) {
+                logTags.append(id).append(',').append(tagId).append('\n');
+            }
+        }
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copy.copyIn(COPY_LOG, new StringReader(logs.toString()));
+                if (!logTags.isEmpty()) copy.copyIn(COPY_LOG_TAGS, new StringReader(logTags.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        logVisibilityRepository.grantForLogs(logIds);
+    }
+
+    /**
+     * Reserves {@code count} ids from {@code log_seq}. Each sequence value {@code v} stands for the
+     * block {@code (v - ID_ALLOCATION_SIZE, v]}, exactly like Hibernate's pooled optimizer.
+     */
+    private long[] allocateIds(int count) {
+        int blocks = (count + Log.ID_ALLOCATION_SIZE - 1) / Log.ID_ALLOCATION_SIZE;
+        List<?> values = entityManager
+            .createNativeQuery("SELECT nextval('log_seq') FROM generate_series(1, ?1)")
+            .setParameter(1, blocks)
+            .getResultList();
+
+        long[] ids = new long[count];
+        int index = 0;
+        for (Object value : values) {
+            long hi = ((Number) value).longValue();
+            for (long id = hi - Log.ID_ALLOCATION_SIZE + 1; id <= hi && index < count; id++) {
+                ids[index++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private static String timestamp(ZonedDateTime time) {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(time);
+    }
+
+    /** Appends a COPY CSV value: quoted text, or nothing (NULL) for null. */
+    private static void appendText(StringBuilder out, String value) {
+        if (value == null) return;
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        out.append('"');
+    }
+}
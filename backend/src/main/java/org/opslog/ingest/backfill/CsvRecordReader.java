@@ -0,0 +1,135 @@
+package org.opslog.ingest.backfill;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV reader for {@link ImportRecordReader.Format#CSV}.
+ * Quoted fields may contain separators, doubled quotes and line breaks.
+ */
+class CsvRecordReader implements ImportRecordReader {
+
+    private final BufferedReader input;
+    private Map<String, Integer> columns;
+
+    CsvRecordReader(BufferedReader input) {
+        this.input = input;
+    }
+
+    @Override
+    public ImportRecord next() throws IOException, MalformedRecordException {
+        if (columns == null) readHeader();
+
+        List<String> fields = readFields();
+        if (fields == null) return null;
+        if (fields.size() != columns.size()) {
+            throw new MalformedRecordException("Expected " + columns.size() + " fields but found " + fields.size());
+        }
+
+        try {
+            String createdAt = field(fields, "created_at");
+            String tags = field(fields, "tags");
+            return new ImportRecord(
+                required(fields, "username"),
+                ZonedDateTime.parse(required(fields, "time_of_event")),
+                createdAt == null || createdAt.isEmpty() ? null : ZonedDateTime.parse(createdAt),
+                tags == null || tags.isEmpty() ? List.of() : Arrays.asList(tags.split("\\|")),
+                field(fields, "title"),
+                field(fields, "description")
+            );
+        } catch (DateTimeException e) {
+            throw new MalformedRecordException("Invalid timestamp: " + e.getMessage(), e);
+        }
+    }
+
+    /** A broken header makes the whole input unreadable, so it fails with an IOException. */
+    private void readHeader() throws IOException {
+        List<String> header;
+        try {
+            header = readFields();
+        } catch (MalformedRecordException e) {
+            throw new IOException("Invalid CSV header: " + e.getMessage(), e);
+        }
+        if (header == null) throw new IOException("Missing CSV header");
+        columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : List.of("username", "time_of_event")) {
+            if (!columns.containsKey(column)) throw new IOException("Missing CSV column " + column);
+        }
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        return index == null ? null : fields.get(index);
+    }
+
+    private String required(List<String> fields, String column) throws MalformedRecordException {
+        String value = field(fields, column);
+        if (value == null || value.isEmpty()) throw new MalformedRecordException("Missing " + column);
+        return value;
+    }
+
+    /** Reads one CSV record, or {@code null} at end of input. Blank lines are skipped. */
+    private List<String> readFields() throws IOException, MalformedRecordException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+
+        int c;
+        while ((c = input.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    input.mark(1);
+                    if (input.read() == '"') {
+                        field.append('"');
+                    } else {
+                        input.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    input.mark(1);
+                    if (input.read() != '\n') input.reset();
+                }
+                if (fields.isEmpty() && field.isEmpty()) {
+                    any = false;
+                    continue;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+
+        if (quoted) throw new MalformedRecordException("Unterminated quoted field at end of input");
+        if (!any) return null;
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
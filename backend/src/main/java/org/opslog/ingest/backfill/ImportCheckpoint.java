@@ -0,0 +1,62 @@
+package org.opslog.ingest.backfill;
+
+import jakarta.persistence.EntityManager;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Restart position of an import: the number of input records already handled.
+ * <p>
+ * Stored in the {@code import_checkpoint} table, keyed by input, and advanced by
+ * {@link CopyLogImporter} in the same transaction as the batch it covers. A crash therefore either
+ * keeps both the batch and its checkpoint or neither, and a resumed import never writes a committed
+ * batch a second time.
+ * </p>
+ */
+public class ImportCheckpoint {
+
+    private final String input;
+
+    /**
+     * @param input key of the input; imports of the same input must use the same key
+     */
+    public ImportCheckpoint(String input) {
+        this.input = input;
+    }
+
+    /** A checkpoint keyed by the absolute path of the input file. */
+    public static ImportCheckpoint forInput(Path input) {
+        return new ImportCheckpoint(input.toAbsolutePath().normalize().toString());
+    }
+
+    /** Number of records handled by previous runs, 0 if the import never ran. Needs a transaction. */
+    long load(EntityManager entityManager) {
+        List<?> records = entityManager.createNativeQuery("SELECT records FROM import_checkpoint WHERE input = ?1")
+            .setParameter(1, input)
+            .getResultList();
+        return records.isEmpty() ? 0 : ((Number) records.get(0)).longValue();
+    }
+
+    /** Records the position within the current transaction. */
+    void save(EntityManager entityManager, long records) {
+        entityManager.createNativeQuery(
+                "INSERT INTO import_checkpoint (input, records) VALUES (?1, ?2) " +
+                "ON CONFLICT (input) DO UPDATE SET records = excluded.records, updated_at = now()")
+            .setParameter(1, input)
+            .setParameter(2, records)
+            .executeUpdate();
+    }
+
+    /** Removes the checkpoint after a completed import. Needs a transaction. */
+    void clear(EntityManager entityManager) {
+        entityManager.createNativeQuery("DELETE FROM import_checkpoint WHERE input = ?1")
+            .setParameter(1, input)
+            .executeUpdate();
+    }
+
+    @Override
+    public String toString() {
+        return input;
+    }
+}
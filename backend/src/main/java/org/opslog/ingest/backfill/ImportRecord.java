@@ -0,0 +1,22 @@
+package org.opslog.ingest.backfill;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * One historical log entry read from an import file.
+ * Accounts and tags are referenced by username and tag title; {@code createdAt} is optional.
+ */
+public record ImportRecord(
+    String username,
+    ZonedDateTime timeOfEvent,
+    ZonedDateTime createdAt,
+    List<String> tags,
+    String title,
+    String description
+) {
+
+    public ImportRecord {
+        tags = tags == null ? List.of() : List.copyOf(tags);
+    }
+}
@@ -0,0 +1,40 @@
+package org.opslog.ingest.backfill;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Sequential reader of {@link ImportRecord}s.
+ */
+public interface ImportRecordReader extends Closeable {
+
+    /** Supported input formats. */
+    enum Format {
+        /**
+         * RFC 4180 CSV with a header row naming the columns {@code username}, {@code time_of_event},
+         * {@code title}, {@code description}, {@code tags} (titles separated by {@code |}) and
+         * optionally {@code created_at}. Timestamps are ISO-8601 with offset or zone.
+         */
+        CSV,
+        /** One JSON object per line with the fields of {@link ImportRecord}. */
+        NDJSON
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record, or {@code null} at the end of the input
+     * @throws MalformedRecordException if the record cannot be parsed; it is skipped
+     */
+    ImportRecord next() throws IOException, MalformedRecordException;
+
+    static ImportRecordReader of(Format format, Reader input) {
+        BufferedReader buffered = input instanceof BufferedReader b ? b : new BufferedReader(input, 1 << 16);
+        return switch (format) {
+            case CSV -> new CsvRecordReader(buffered);
+            case NDJSON -> new NdjsonRecordReader(buffered);
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package org.opslog.ingest.backfill;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an import run.
+ * <p>
+ * Records are numbered from 1 in input order. Rejected records (unparsable, unknown account or tag)
+ * are listed individually; a batch that failed in the database is listed as a whole, because its
+ * transaction was rolled back and none of its records were imported.
+ * </p>
+ */
+public class ImportReport {
+
+    /** A single input record that was skipped. */
+    public record RecordError(long record, String message) {}
+
+    /** A batch of records whose database write failed. */
+    public record BatchError(long firstRecord, long lastRecord, String message) {}
+
+    private static final int MAX_LISTED_ERRORS = 10_000;
+
+    private long skipped;
+    private long imported;
+    private long rejected;
+    private long failed;
+    private Duration elapsed = Duration.ZERO;
+    private final List<RecordError> recordErrors = new ArrayList<>();
+    private final List<BatchError> batchErrors = new ArrayList<>();
+
+    void skipped(long count) { skipped += count; }
+
+    void imported(long count) { imported += count; }
+
+    void rejected(long record, String message) {
+        rejected++;
+        if (recordErrors.size() < MAX_LISTED_ERRORS) recordErrors.add(new RecordError(record, message));
+    }
+
+    void failed(long firstRecord, long lastRecord, int count, String message) {
+        failed += count;
+        batchErrors.add(new BatchError(firstRecord, lastRecord, message));
+    }
+
+    void elapsed(Duration elapsed) { this.elapsed = elapsed; }
+
+    /** Adds the counts and errors of a report of another part of the same run. */
+    void add(ImportReport other) {
+        skipped += other.skipped;
+        imported += other.imported;
+        rejected += other.rejected;
+        failed += other.failed;
+        int room = MAX_LISTED_ERRORS - recordErrors.size();
+        recordErrors.addAll(other.recordErrors.subList(0, Math.min(room, other.recordErrors.size())));
+        batchErrors.addAll(other.batchErrors);
+    }
+
+    /** Records skipped because a previous run already handled them. */
+    public long getSkipped() { return skipped; }
+
+    public long getImported() { return imported; }
+
+    public long getRejected() { return rejected; }
+
+    public long getFailed() { return failed; }
+
+    public Duration getElapsed() { return elapsed; }
+
+    /** Rejected records; capped at 10000 entries, {@link #getRejected()} has the full count. */
+    public List<RecordError> getRecordErrors() { return Collections.unmodifiableList(recordErrors); }
+
+    public List<BatchError> getBatchErrors() { return Collections.unmodifiableList(batchErrors); }
+
+    public double getRecordsPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? imported : imported * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("imported=%d rejected=%d failed=%d skipped=%d elapsed=%s (%.0f records/s)",
+            imported, rejected, failed, skipped, elapsed, getRecordsPerSecond());
+    }
+}
@@ -0,0 +1,16 @@
+package org.opslog.ingest.backfill;
+
+/**
+ * Thrown by an {@link ImportRecordReader} for an input record that cannot be parsed.
+ * The record has been consumed; reading can continue with the next one.
+ */
+public class MalformedRecordException extends Exception {
+
+    public MalformedRecordException(String message) {
+        super(message);
+    }
+
+    public MalformedRecordException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
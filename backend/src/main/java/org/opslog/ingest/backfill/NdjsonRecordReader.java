@@ -0,0 +1,70 @@
+package org.opslog.ingest.backfill;
+
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader for {@link ImportRecordReader.Format#NDJSON}: one JSON object per line, e.g.
+ * <pre>
+ * {"username":"alice","timeOfEvent":"2021-03-04T05:06:07Z","tags":["pump"],"title":"...","description":"..."}
+ * </pre>
+ */
+class NdjsonRecordReader implements ImportRecordReader {
+
+    private final BufferedReader input;
+
+    NdjsonRecordReader(BufferedReader input) {
+        this.input = input;
+    }
+
+    @Override
+    public ImportRecord next() throws IOException, MalformedRecordException {
+        String line;
+        do {
+            line = input.readLine();
+            if (line == null) return null;
+        } while (line.isBlank());
+
+        try {
+            JsonObject json = new JsonObject(line);
+            String username = json.getString("username");
+            String timeOfEvent = json.getString("timeOfEvent");
+            if (username == null || timeOfEvent == null) {
+                throw new MalformedRecordException("Missing username or timeOfEvent");
+            }
+            String createdAt = json.getString("createdAt");
+
+            List<String> tags = new ArrayList<>();
+            JsonArray array = json.getJsonArray("tags");
+            if (array != null) {
+                for (int i = 0; i < array.size(); i++) tags.add(array.getString(i));
+            }
+
+            return new ImportRecord(
+                username,
+                ZonedDateTime.parse(timeOfEvent),
+                createdAt == null ? null : ZonedDateTime.parse(createdAt),
+                tags,
+                json.getString("title"),
+                json.getString("description")
+            );
+        } catch (DecodeException | ClassCastException e) {
+            throw new MalformedRecordException("Invalid JSON: " + e.getMessage(), e);
+        } catch (DateTimeException e) {
+            throw new MalformedRecordException("Invalid timestamp: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,47 @@
+package org.opslog.ingest.backfill;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Shape of a dataset written by {@link SyntheticLogGenerator}. The same values, seed included,
+ * always produce the same content.
+ *
+ * @param prefix           name prefix of the generated groups ({@code <prefix>-group-n}), accounts
+ *                         ({@code <prefix>-user-n}, {@code <prefix>-admin}) and tags ({@code <prefix>-tag-n})
+ * @param seed             seed of every random choice
+ * @param accounts         accounts besides the administrator
+ * @param groups           groups; the administrator belongs to all of them
+ * @param groupSkew        Zipf exponent of the group sizes (0 is even, 1 and above a few large groups)
+ * @param tags             tags
+ * @param tagSkew          Zipf exponent of the tag popularity
+ * @param authorSkew       Zipf exponent of how many logs each account writes
+ * @param logs             log rows, revisions included
+ * @param from             earliest time of event
+ * @param to               latest time of event
+ * @param incidents        incidents around which logs cluster
+ * @param burstShare       share of the original logs written during incidents
+ * @param burstMinutes     mean delay of an incident log after the incident start
+ * @param revisedShare     share of the original logs that get revisions
+ * @param maxRevisions     most revisions of one log; depths are geometrically distributed
+ * @param descriptionBytes median description length in characters
+ */
+public record SyntheticDataset(String prefix, long seed, int accounts, int groups, double groupSkew,
+                               int tags, double tagSkew, double authorSkew, long logs,
+                               ZonedDateTime from, ZonedDateTime to, int incidents, double burstShare,
+                               int burstMinutes, double revisedShare, int maxRevisions, int descriptionBytes) {
+
+    public SyntheticDataset {
+        if (accounts < 1 || groups < 1 || tags < 1) {
+            throw new IllegalArgumentException("accounts, groups and tags must be positive");
+        }
+        if (logs < 0) throw new IllegalArgumentException("logs must not be negative: " + logs);
+        if (!from.isBefore(to)) throw new IllegalArgumentException("from must be before to");
+        if (burstShare < 0 || burstShare > 1 || revisedShare < 0 || revisedShare > 1) {
+            throw new IllegalArgumentException("shares must be within [0, 1]");
+        }
+        if (incidents < 0 || maxRevisions < 0 || descriptionBytes < 0) {
+            throw new IllegalArgumentException("incidents, maxRevisions and descriptionBytes must not be negative");
+        }
+        if (burstMinutes < 1) throw new IllegalArgumentException("burstMinutes must be positive: " + burstMinutes);
+    }
+}
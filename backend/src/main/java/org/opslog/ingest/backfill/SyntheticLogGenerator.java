@@ -0,0 +1,381 @@
+package org.opslog.ingest.backfill;
+
+import org.jboss.logging.Logger;
+import org.opslog.entities.Account;
+import org.opslog.entities.Group;
+import org.opslog.entities.Tag;
+import org.opslog.enums.AppGroup;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.persistence.EntityManager;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes realistic synthetic datasets for load tests and benchmarks, through the COPY path of
+ * {@link CopyLogImporter}.
+ * <p>
+ * A {@link SyntheticDataset} describes the shape: Zipf-distributed group sizes, tag popularity and
+ * author activity, times of event clustered after incidents on top of a uniform background,
+ * revision chains of geometric depth, and descriptions of a few kilobytes with a log-normal
+ * length. Logs are generated in batches of {@code opslog.import.batch-size} rows on
+ * {@code opslog.generate.threads} threads, each batch from its own random stream derived from the
+ * seed, so the content does not depend on the thread count. Database ids do: they come from the
+ * sequences as usual.
+ * </p>
+ * <p>
+ * Setting {@code opslog.generate.logs} generates the configured dataset in the background at
+ * startup, unless its accounts already exist.
+ * </p>
+ */
+@ApplicationScoped
+public class SyntheticLogGenerator {
+
+    private static final Logger LOG = Logger.getLogger(SyntheticLogGenerator.class);
+
+    private static final String[] SUBJECTS = {
+        "Pump", "Valve", "Sensor", "Compressor", "Generator", "Switch", "Router", "Database", "Backup", "Cooling",
+        "Conveyor", "Boiler", "Firewall", "Load balancer", "Storage array", "Transformer", "Chiller", "Scheduler",
+        "Certificate", "Replica"
+    };
+    private static final String[] EVENTS = {
+        "restarted", "failed", "degraded", "recovered", "replaced", "inspected", "overheated", "tripped", "patched",
+        "reconfigured", "alarmed", "drained", "calibrated", "rolled back", "throttled", "escalated", "isolated",
+        "cleaned", "upgraded", "acknowledged"
+    };
+    private static final String[] DETAILS = {
+        "pressure above threshold", "latency spike observed", "vibration within limits", "error rate back to normal",
+        "spare part ordered", "operator on site", "ticket opened with vendor", "root cause unknown",
+        "temperature trending up", "manual override applied", "alarm cleared", "monitoring extended",
+        "no customer impact", "shift handover noted", "firmware mismatch found", "checklist completed",
+        "readings logged every 5 minutes", "follow-up scheduled", "power cycled twice", "waiting for approval"
+    };
+    private static final int NODES = 500;
+    private static final int PROGRESS_INTERVAL = 100;
+
+    /** Share of the accounts in a second group, and of revisions made by another account. */
+    private static final double SECOND_GROUP_SHARE = 0.25;
+    private static final double FOREIGN_REVISION_SHARE = 0.3;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    CopyLogImporter importer;
+
+    @ConfigProperty(name = "opslog.import.batch-size", defaultValue = "10000")
+    int batchSize;
+
+    @ConfigProperty(name = "opslog.generate.threads", defaultValue = "4")
+    int threads;
+
+    // --- Dataset generated at startup --- //
+
+    @ConfigProperty(name = "opslog.generate.logs", defaultValue = "0")
+    long logs;
+
+    @ConfigProperty(name = "opslog.generate.prefix", defaultValue = "syn")
+    String prefix;
+
+    @ConfigProperty(name = "opslog.generate.seed", defaultValue = "1")
+    long seed;
+
+    @ConfigProperty(name = "opslog.generate.accounts", defaultValue = "2000")
+    int accounts;
+
+    @ConfigProperty(name = "opslog.generate.groups", defaultValue = "50")
+    int groups;
+
+    @ConfigProperty(name = "opslog.generate.group-skew", defaultValue = "1.0")
+    double groupSkew;
+
+    @ConfigProperty(name = "opslog.generate.tags", defaultValue = "5000")
+    int tags;
+
+    @ConfigProperty(name = "opslog.generate.tag-skew", defaultValue = "1.1")
+    double tagSkew;
+
+    @ConfigProperty(name = "opslog.generate.author-skew", defaultValue = "0.8")
+    double authorSkew;
+
+    @ConfigProperty(name = "opslog.generate.from", defaultValue = "2024-01-01T00:00:00Z")
+    ZonedDateTime from;
+
+    @ConfigProperty(name = "opslog.generate.to", defaultValue = "2026-01-01T00:00:00Z")
+    ZonedDateTime to;
+
+    @ConfigProperty(name = "opslog.generate.incidents", defaultValue = "500")
+    int incidents;
+
+    @ConfigProperty(name = "opslog.generate.burst-share", defaultValue = "0.3")
+    double burstShare;
+
+    @ConfigProperty(name = "opslog.generate.burst-minutes", defaultValue = "90")
+    int burstMinutes;
+
+    @ConfigProperty(name = "opslog.generate.revised-share", defaultValue = "0.1")
+    double revisedShare;
+
+    @ConfigProperty(name = "opslog.generate.max-revisions", defaultValue = "8")
+    int maxRevisions;
+
+    @ConfigProperty(name = "opslog.generate.description-bytes", defaultValue = "2048")
+    int descriptionBytes;
+
+    // After the schema steps and the partition conversion
+    void onStart(@Observes @Priority(Interceptor.Priority.LIBRARY_AFTER + 1) StartupEvent event) {
+        if (logs <= 0) return;
+        SyntheticDataset dataset = new SyntheticDataset(prefix, seed, accounts, groups, groupSkew, tags, tagSkew,
+            authorSkew, logs, from, to, incidents, burstShare, burstMinutes, revisedShare, maxRevisions, descriptionBytes);
+        if (exists(dataset)) {
+            LOG.infof("Synthetic dataset '%s' already present, not generating it again", prefix);
+            return;
+        }
+        Thread.ofPlatform().name("opslog-generator").start(() -> generate(dataset));
+    }
+
+    /** Whether the accounts of the dataset were generated before. */
+    public boolean exists(SyntheticDataset dataset) {
+        return QuarkusTransaction.requiringNew().call(() -> !entityManager
+            .createQuery("select a.id from Account a where a.username = :username", Long.class)
+            .setParameter("username", dataset.prefix() + "-user-0")
+            .getResultList()
+            .isEmpty());
+    }
+
+    /**
+     * Writes the groups, accounts and tags of the dataset, then its logs. Blocks until done.
+     *
+     * @return the outcome of the log import
+     */
+    public ImportReport generate(SyntheticDataset dataset) {
+        long started = System.nanoTime();
+        Model model = new Model(dataset, QuarkusTransaction.requiringNew().call(() -> writeAccounts(dataset)),
+            QuarkusTransaction.requiringNew().call(() -> writeTags(dataset)));
+        LOG.infof("Generating %d synthetic logs for %d accounts", dataset.logs(), dataset.accounts());
+
+        long batches = (dataset.logs() + batchSize - 1) / batchSize;
+        ImportReport total = new ImportReport();
+        ReentrantLock totalLock = new ReentrantLock();
+        AtomicLong written = new AtomicLong();
+        try (ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads),
+                Thread.ofPlatform().name("opslog-generator-", 0).factory())) {
+            for (long batch = 0; batch < batches; batch++) {
+                long index = batch;
+                workers.execute(() -> {
+                    ImportReport report = new ImportReport();
+                    importer.write(model.batch(index, batchSize), report);
+                    totalLock.lock();
+                    try {
+                        total.add(report);
+                    } finally {
+                        totalLock.unlock();
+                    }
+                    long done = written.incrementAndGet();
+                    if (done % PROGRESS_INTERVAL == 0) LOG.infof("Synthetic logs: %d of %d batches written", done, batches);
+                });
+            }
+        }
+        total.elapsed(Duration.ofNanos(System.nanoTime() - started));
+        LOG.infof("Synthetic dataset '%s' written: %s", dataset.prefix(), total);
+        return total;
+    }
+
+    // --------------------------------------------
+    // --- Reference data ---
+    // --------------------------------------------
+
+    /** Groups and accounts; returns the account ids by index. */
+    private long[] writeAccounts(SyntheticDataset dataset) {
+        SplittableRandom random = new SplittableRandom(dataset.seed());
+        ZipfSampler groupSizes = new ZipfSampler(dataset.groups(), dataset.groupSkew());
+
+        List<Group> groups = new ArrayList<>(dataset.groups());
+        for (int i = 0; i < dataset.groups(); i++) {
+            Group group = new Group(dataset.prefix() + "-group-" + i, "Synthetic group " + i);
+            entityManager.persist(group);
+            groups.add(group);
+        }
+
+        long[] ids = new long[dataset.accounts()];
+        for (int i = 0; i < ids.length; i++) {
+            Set<Group> memberships = new HashSet<>();
+            memberships.add(groups.get(groupSizes.index(random)));
+            if (random.nextDouble() < SECOND_GROUP_SHARE) memberships.add(groups.get(groupSizes.index(random)));
+            Account account = account(dataset.prefix() + "-user-" + i, memberships);
+            entityManager.persist(account);
+            ids[i] = account.getId();
+        }
+
+        Set<Group> all = new HashSet<>(groups);
+        all.add(administratorGroup());
+        entityManager.persist(account(dataset.prefix() + "-admin", all));
+        return ids;
+    }
+
+    private Group administratorGroup() {
+        List<Group> existing = entityManager
+            .createQuery("from Group g where g.appGroup = :appGroup", Group.class)
+            .setParameter("appGroup", AppGroup.ADMINISTRATOR)
+            .getResultList();
+        if (!existing.isEmpty()) return existing.get(0);
+        Group administrators = new Group(AppGroup.ADMINISTRATOR);
+        entityManager.persist(administrators);
+        return administrators;
+    }
+
+    private static Account account(String username, Set<Group> groups) {
+        return new Account("Synthetic", username, username + "@synthetic.invalid", username, "-", groups);
+    }
+
+    /** Tags; returns their ids by popularity rank. */
+    private long[] writeTags(SyntheticDataset dataset) {
+        long[] ids = new long[dataset.tags()];
+        for (int i = 0; i < ids.length; i++) {
+            Tag tag = new Tag(dataset.prefix() + "-tag-" + i, "Synthetic tag " + i,
+                String.format("#%06x", (i * 0x9e3779b1L) & 0xffffff));
+            entityManager.persist(tag);
+            ids[i] = tag.getId();
+        }
+        return ids;
+    }
+
+    // --------------------------------------------
+    // --- Logs ---
+    // --------------------------------------------
+
+    /** The immutable distributions of a dataset, shared by the generating threads. */
+    private static final class Model {
+
+        private final SyntheticDataset dataset;
+        private final long[] accountIds;
+        private final long[] tagIds;
+        private final ZipfSampler authors;
+        private final ZipfSampler tags;
+        private final ZipfSampler nodes;
+        private final long fromSecond;
+        private final long toSecond;
+        private final long[] incidentStarts;
+
+        Model(SyntheticDataset dataset, long[] accountIds, long[] tagIds) {
+            this.dataset = dataset;
+            this.accountIds = accountIds;
+            this.tagIds = tagIds;
+            this.authors = new ZipfSampler(accountIds.length, dataset.authorSkew());
+            this.tags = new ZipfSampler(tagIds.length, dataset.tagSkew());
+            this.nodes = new ZipfSampler(NODES, 1.0);
+            this.fromSecond = dataset.from().toEpochSecond();
+            this.toSecond = dataset.to().toEpochSecond();
+
+            SplittableRandom random = new SplittableRandom(dataset.seed() ^ 0x5deece66dL);
+            this.incidentStarts = new long[dataset.incidents()];
+            for (int i = 0; i < incidentStarts.length; i++) {
+                incidentStarts[i] = random.nextLong(fromSecond, toSecond);
+            }
+        }
+
+        /**
+         * Rows {@code [index * size, (index + 1) * size)} of the dataset, as whole revision chains.
+         * A chain that would cross the end of the batch is cut short.
+         */
+        List<CopyLogImporter.Row> batch(long index, int size) {
+            SplittableRandom random = new SplittableRandom(dataset.seed() ^ index * 0x9e3779b97f4a7c15L);
+            long first = index * size;
+            int count = (int) Math.min(size, dataset.logs() - first);
+            List<CopyLogImporter.Row> rows = new ArrayList<>(count);
+            StringBuilder text = new StringBuilder(dataset.descriptionBytes() * 2);
+            while (rows.size() < count) {
+                addChain(rows, count, first, random, text);
+            }
+            return rows;
+        }
+
+        private void addChain(List<CopyLogImporter.Row> rows, int count, long first, SplittableRandom random,
+                              StringBuilder text) {
+            int author = authors.index(random);
+            ZonedDateTime timeOfEvent = Instant.ofEpochSecond(eventSecond(random)).atZone(ZoneOffset.UTC);
+            ZonedDateTime createdAt = timeOfEvent.plusSeconds(exponential(random, 300));
+            long[] logTags = tags(random);
+            String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+            String node = "node-" + nodes.sample(random);
+            String title = subject + " " + EVENTS[random.nextInt(EVENTS.length)] + " on " + node;
+            String description = description(random, text, subject, node);
+            rows.add(new CopyLogImporter.Row(first + rows.size() + 1, accountIds[author], createdAt, timeOfEvent,
+                logTags, title, description));
+
+            if (dataset.maxRevisions() == 0 || random.nextDouble() >= dataset.revisedShare()) return;
+            int depth = 1;
+            while (depth < dataset.maxRevisions() && random.nextBoolean()) depth++;
+            depth = Math.min(depth, count - rows.size());
+            for (int revision = 1; revision <= depth; revision++) {
+                int reviser = random.nextDouble() < FOREIGN_REVISION_SHARE ? authors.index(random) : author;
+                createdAt = createdAt.plusSeconds(exponential(random, 7200));
+                description = description + "\n\nUpdate " + revision + ": " + DETAILS[random.nextInt(DETAILS.length)] + ".";
+                rows.add(new CopyLogImporter.Row(first + rows.size() + 1, accountIds[reviser], createdAt, timeOfEvent,
+                    logTags, title, description, rows.size() - 1));
+            }
+        }
+
+        /** Uniform background, or shortly after one of the incidents. */
+        private long eventSecond(SplittableRandom random) {
+            if (incidentStarts.length > 0 && random.nextDouble() < dataset.burstShare()) {
+                long start = incidentStarts[random.nextInt(incidentStarts.length)];
+                return Math.min(toSecond, start + exponential(random, dataset.burstMinutes() * 60L));
+            }
+            return random.nextLong(fromSecond, toSecond);
+        }
+
+        /** Zero to four distinct tags, popular ones more often. */
+        private long[] tags(SplittableRandom random) {
+            int count = random.nextInt(5);
+            long[] chosen = new long[count];
+            int size = 0;
+            for (int attempt = 0; size < count && attempt < count * 4; attempt++) {
+                long tag = tagIds[tags.index(random)];
+                boolean duplicate = false;
+                for (int i = 0; i < size; i++) duplicate |= chosen[i] == tag;
+                if (!duplicate) chosen[size++] = tag;
+            }
+            return size == count ? chosen : Arrays.copyOf(chosen, size);
+        }
+
+        /** Sentences up to a log-normal length around {@code descriptionBytes}. */
+        private String description(SplittableRandom random, StringBuilder text, String subject, String node) {
+            int length = (int) (dataset.descriptionBytes() * Math.exp(0.5 * random.nextGaussian()));
+            text.setLength(0);
+            while (text.length() < length) {
+                text.append(subject).append(' ').append(EVENTS[random.nextInt(EVENTS.length)])
+                    .append(" on ").append(node).append(" at ")
+                    .append(random.nextInt(10, 24)).append(':').append(random.nextInt(10, 60)).append(", ")
+                    .append(DETAILS[random.nextInt(DETAILS.length)]).append(". ");
+                if (random.nextInt(6) == 0) text.append('\n');
+            }
+            return text.toString();
+        }
+
+        private static long exponential(SplittableRandom random, long mean) {
+            return (long) (-mean * Math.log(1 - random.nextDouble()));
+        }
+    }
+}
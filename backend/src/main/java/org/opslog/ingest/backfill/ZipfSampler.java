@@ -0,0 +1,72 @@
+package org.opslog.ingest.backfill;
+
+import java.util.SplittableRandom;
+
+/**
+ * Samples ranks {@code 1..n} with probability proportional to {@code 1 / rank^exponent}, in
+ * constant time and without tables, by rejection-inversion (Hörmann and Derflinger, 1996).
+ * An exponent of 0 is uniform; around 1 a few ranks dominate, like tag popularity.
+ */
+final class ZipfSampler {
+
+    private final int n;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+
+    ZipfSampler(int n, double exponent) {
+        if (n < 1) throw new IllegalArgumentException("n must be positive: " + n);
+        if (exponent < 0) throw new IllegalArgumentException("exponent must not be negative: " + exponent);
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    /** A rank in {@code 1..n}; rank 1 is the most frequent. */
+    int sample(SplittableRandom random) {
+        if (exponent == 0) return 1 + random.nextInt(n);
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > n) {
+                k = n;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) return k;
+        }
+    }
+
+    /** Zero-based index, for picking from a list. */
+    int index(SplittableRandom random) {
+        return sample(random) - 1;
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return expm1Ratio((1 - exponent) * logX) * logX;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = Math.max(-1, x * (1 - exponent));
+        return Math.exp(log1pRatio(t) * x);
+    }
+
+    /** {@code log(1 + x) / x}, accurate near 0. */
+    private static double log1pRatio(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    /** {@code (exp(x) - 1) / x}, accurate near 0. */
+    private static double expm1Ratio(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x * (1.0 / 3) * (1 + 0.25 * x));
+    }
+}
@@ -0,0 +1,52 @@
+package org.opslog.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+
+/**
+ * Position of a log inside a keyset ordered listing.
+ * <p>
+ * Listings are ordered on {@code (time, id)}; the cursor stores both values of the last
+ * (or first) row of a page so the next page can continue with an indexed range predicate
+ * instead of an OFFSET. Clients only ever see the opaque {@link #encode() token}.
+ * </p>
+ */
+public record LogCursor(Instant time, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public static LogCursor of(ZonedDateTime time, long id) {
+        return new LogCursor(time.toInstant(), id);
+    }
+
+    public ZonedDateTime zonedTime() {
+        return time.atZone(ZoneOffset.UTC);
+    }
+
+    /** Encodes the cursor as an opaque, URL safe token. */
+    public String encode() {
+        String raw = time.getEpochSecond() + ":" + time.getNano() + ":" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static LogCursor decode(String token) {
+        try {
+            String[] parts = new String(DECODER.decode(token), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != 3) throw new IllegalArgumentException("Malformed cursor: " + token);
+            Instant time = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new LogCursor(time, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.opslog.pagination;
+
+import java.util.List;
+
+/**
+ * One page of a keyset ordered listing.
+ * <p>
+ * {@code next} and {@code previous} are opaque continuation tokens, {@code null} when there
+ * is nothing further in that direction.
+ * </p>
+ */
+public record Page<T>(List<T> items, String next, String previous) {
+
+    public Page {
+        items = List.copyOf(items);
+    }
+
+    public static <T> Page<T> empty() {
+        return new Page<>(List.of(), null, null);
+    }
+
+    public boolean hasNext() { return next != null; }
+
+    public boolean hasPrevious() { return previous != null; }
+}
@@ -0,0 +1,51 @@
+package org.opslog.pagination;
+
+/**
+ * Requests one page of a keyset ordered listing.
+ * <p>
+ * The first page has no cursor. Following pages pass the {@code next} or {@code previous}
+ * token of the page they navigate from, together with the matching {@link Direction}.
+ * </p>
+ */
+public record PageRequest(String cursor, int size, Direction direction) {
+
+    public static final int MAX_SIZE = 500;
+
+    /** Navigation direction relative to the cursor. */
+    public enum Direction {
+        /** Rows after the cursor in listing order (older entries). */
+        NEXT,
+        /** Rows before the cursor in listing order (newer entries). */
+        PREVIOUS
+    }
+
+    public PageRequest {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SIZE + ": " + size);
+        }
+        if (direction == null) direction = Direction.NEXT;
+    }
+
+    /** The first page of a listing. */
+    public static PageRequest first(int size) {
+        return new PageRequest(null, size, Direction.NEXT);
+    }
+
+    /** The page following the given {@code next} token. */
+    public static PageRequest after(String cursor, int size) {
+        return new PageRequest(cursor, size, Direction.NEXT);
+    }
+
+    /** The page preceding the given {@code previous} token. */
+    public static PageRequest before(String cursor, int size) {
+        return new PageRequest(cursor, size, Direction.PREVIOUS);
+    }
+
+    public boolean hasCursor() {
+        return cursor != null && !cursor.isBlank();
+    }
+
+    public LogCursor decodedCursor() {
+        return hasCursor() ? LogCursor.decode(cursor) : null;
+    }
+}
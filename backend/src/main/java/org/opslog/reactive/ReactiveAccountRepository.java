@@ -0,0 +1,64 @@
+package org.opslog.reactive;
+
+import org.opslog.enums.AppGroup;
+import org.opslog.security.AccountSecurityContext;
+import org.opslog.security.AccountSecurityContexts;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Non-blocking counterpart of the account lookups the read path needs: resolving the caller and
+ * its {@link AccountSecurityContext}.
+ * <p>
+ * Contexts are shared with the blocking path through {@link AccountSecurityContexts}, so both
+ * observe the same membership invalidations.
+ * </p>
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "opslog.data-path", stringValue = "reactive")
+public class ReactiveAccountRepository {
+
+    @Inject
+    Pool client;
+
+    @Inject
+    AccountSecurityContexts securityContexts;
+
+    /** Id of the account with the username, or a {@code null} item if there is none. */
+    public Uni<Long> findIdByUsername(String username) {
+        return client.preparedQuery("SELECT id FROM account WHERE username = $1 LIMIT 1")
+            .execute(Tuple.of(username))
+            .map(rows -> rows.iterator().hasNext() ? rows.iterator().next().getLong("id") : null);
+    }
+
+    /** The security context of the account, from the shared cache or loaded with one query. */
+    public Uni<AccountSecurityContext> securityContext(long accountId) {
+        AccountSecurityContext cached = securityContexts.cached(accountId);
+        if (cached != null) return Uni.createFrom().item(cached);
+
+        long loadedVersion = securityContexts.currentVersion();
+        return client.preparedQuery(
+                "SELECT g.id, g.app_group FROM account_groups ag JOIN \"group\" g ON g.id = ag.group_id " +
+                "WHERE ag.account_id = $1")
+            .execute(Tuple.of(accountId))
+            .map(rows -> toContext(accountId, rows, loadedVersion));
+    }
+
+    private AccountSecurityContext toContext(long accountId, RowSet<Row> rows, long loadedVersion) {
+        long[] groupIds = new long[rows.size()];
+        boolean admin = false;
+        int i = 0;
+        for (Row row : rows) {
+            groupIds[i++] = row.getLong("id");
+            admin |= AppGroup.ADMINISTRATOR.name().equals(row.getString("app_group"));
+        }
+        return securityContexts.store(accountId, groupIds, admin, loadedVersion);
+    }
+}
@@ -0,0 +1,263 @@
+package org.opslog.reactive;
+
+import org.opslog.dto.LogListItem;
+import org.opslog.entities.TextDelta;
+import org.opslog.pagination.LogCursor;
+import org.opslog.pagination.Page;
+import org.opslog.pagination.PageRequest;
+import org.opslog.security.AccountSecurityContext;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking counterpart of the {@link org.opslog.repositories.LogRepository} listings, over the
+ * reactive PostgreSQL client.
+ * <p>
+ * Only active when built with {@code opslog.data-path=reactive} (the {@code reactive} profile).
+ * Results are {@link LogListItem} rows rather than entities: the same columns as
+ * {@code LogRepository.listByFilter}, the same visibility rule (a log is visible if one of its
+ * {@code log_visible_group} rows names a group of the account), only chain heads, and the same
+ * keyset pages and cursors, so a client can switch between the two paths.
+ * </p>
+ * <p>
+ * Writes, the archive and the bitmap index stay on the blocking path.
+ * </p>
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "opslog.data-path", stringValue = "reactive")
+public class ReactiveLogRepository {
+
+    private static final String SELECT_ITEMS =
+        "SELECT l.id, l.title, l.time_of_event, a.username FROM log l JOIN account a ON a.id = l.create_by_id WHERE ";
+
+    /** Same rule as {@code LogRepository.VISIBLE}; the group ids are always parameter {@code $1}. */
+    private static final String VISIBLE =
+        "EXISTS (SELECT 1 FROM log_visible_group v WHERE v.log_id = l.id AND v.group_id = ANY($1))";
+
+    private static final String HEAD = "l.is_head";
+
+    /** Revision history order, like {@code KeysetOrder.REVISION_HISTORY}. */
+    private static final Comparator<ChainEntry> REVISION_HISTORY =
+        Comparator.comparing(ChainEntry::changedAt).thenComparingLong(ChainEntry::id);
+
+    @Inject
+    Pool client;
+
+    // --------------------------------------------
+    // --- Listings ---
+    // --------------------------------------------
+
+    /** Logs visible to the account, newest first. */
+    public Uni<Page<LogListItem>> listAllVisible(AccountSecurityContext security, PageRequest page) {
+        return page(security, where(security), page);
+    }
+
+    /** Logs visible to the account with a time of event in {@code [from, to]}, newest first. */
+    public Uni<Page<LogListItem>> listByTimeRange(AccountSecurityContext security, ZonedDateTime from,
+                                                 ZonedDateTime to, PageRequest page) {
+        return page(security, where(security)
+            .and("l.time_of_event BETWEEN ? AND ?", from.toOffsetDateTime(), to.toOffsetDateTime()), page);
+    }
+
+    /** Logs visible to the group and to the account, newest first. */
+    public Uni<Page<LogListItem>> listByGroup(AccountSecurityContext security, long groupId, PageRequest page) {
+        return page(security, where(security)
+            .and("EXISTS (SELECT 1 FROM log_visible_group vg WHERE vg.log_id = l.id AND vg.group_id = ?)", groupId),
+            page);
+    }
+
+    /** Logs created by the target account and visible to the account, newest first. */
+    public Uni<Page<LogListItem>> listByAccount(AccountSecurityContext security, long accountId, PageRequest page) {
+        return page(security, where(security).and("l.create_by_id = ?", accountId), page);
+    }
+
+    /** Logs carrying the tag and visible to the account, newest first. */
+    public Uni<Page<LogListItem>> listByTag(AccountSecurityContext security, long tagId, PageRequest page) {
+        return page(security, where(security)
+            .and("EXISTS (SELECT 1 FROM log_tags lt WHERE lt.log_id = l.id AND lt.tag_id = ?)", tagId), page);
+    }
+
+    /**
+     * Every log visible to the account, newest first, read page by page so memory stays bounded
+     * by {@code pageSize} and demand drives the reads.
+     */
+    public Multi<LogListItem> streamAllVisible(AccountSecurityContext security, int pageSize) {
+        AtomicReference<PageRequest> request = new AtomicReference<>(PageRequest.first(pageSize));
+        return Multi.createBy().repeating()
+            .uni(() -> listAllVisible(security, request.get())
+                .invoke(page -> request.set(page.hasNext() ? PageRequest.after(page.next(), pageSize) : null)))
+            .whilst(page -> request.get() != null)
+            .onItem().transformToIterable(Page::items);
+    }
+
+    public Uni<Long> countVisible(AccountSecurityContext security) {
+        if (security.hasNoGroups()) return Uni.createFrom().item(0L);
+        return client.preparedQuery("SELECT count(*) FROM log l WHERE " + VISIBLE + " AND " + HEAD)
+            .execute(Tuple.of(security.groupIdArray()))
+            .map(rows -> rows.iterator().next().getLong(0));
+    }
+
+    // --------------------------------------------
+    // --- Revisions ---
+    // --------------------------------------------
+
+    /** One entry of a chain while decoding delta-encoded titles. */
+    private record ChainEntry(long id, Long parentId, String title, boolean deltaEncoded, OffsetDateTime changedAt,
+                              OffsetDateTime timeOfEvent, String author, boolean visible) {}
+
+    /**
+     * The revision chain of the log, original first, restricted to entries visible to the account.
+     * Superseded revisions may be stored as deltas; the whole chain is read in one query so their
+     * titles can be rebuilt from their parents, as {@code Log.getTitle()} does.
+     */
+    public Uni<List<LogListItem>> listRevisionChain(AccountSecurityContext security, long logId) {
+        if (security.hasNoGroups()) return Uni.createFrom().item(List.of());
+        return client.preparedQuery(
+                "WITH r AS (SELECT coalesce(root_id, id) AS id FROM log WHERE id = $2) " +
+                "SELECT l.id, l.parent_id, l.title, l.delta_encoded, coalesce(l.revised_at, l.created_at) AS changed_at, " +
+                "l.time_of_event, a.username, " + VISIBLE + " AS visible " +
+                "FROM log l JOIN r ON l.id = r.id OR l.root_id = r.id JOIN account a ON a.id = l.create_by_id " +
+                "ORDER BY l.revision_depth, l.id")
+            .execute(Tuple.of(security.groupIdArray(), logId))
+            .flatMap(rows -> {
+                List<ChainEntry> chain = decodeChain(rows);
+                return items(chain.stream().filter(ChainEntry::visible).sorted(REVISION_HISTORY)
+                    .map(entry -> new Object[] {entry.id(), entry.title(), entry.timeOfEvent(), entry.author()})
+                    .toList());
+            });
+    }
+
+    /** Rows in revision depth order, so every parent is decoded before its revisions. */
+    private static List<ChainEntry> decodeChain(RowSet<Row> rows) {
+        Map<Long, String> titles = new HashMap<>();
+        List<ChainEntry> chain = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            long id = row.getLong("id");
+            Long parentId = row.getLong("parent_id");
+            boolean deltaEncoded = row.getBoolean("delta_encoded");
+            String title = deltaEncoded
+                ? TextDelta.apply(titles.get(parentId), row.getString("title"))
+                : row.getString("title");
+            titles.put(id, title);
+            chain.add(new ChainEntry(id, parentId, title, deltaEncoded, row.getOffsetDateTime("changed_at"),
+                row.getOffsetDateTime("time_of_event"), row.getString("username"), row.getBoolean("visible")));
+        }
+        return chain;
+    }
+
+    // --------------------------------------------
+    // --- Keyset paging ---
+    // --------------------------------------------
+
+    /** Positional conditions; {@code ?} placeholders become {@code $n} in the order they are added. */
+    private static final class Where {
+        private final StringBuilder sql = new StringBuilder();
+        private final List<Object> values = new ArrayList<>();
+
+        Where and(String condition, Object... conditionValues) {
+            if (!sql.isEmpty()) sql.append(" AND ");
+            int start = 0;
+            for (Object value : conditionValues) {
+                int mark = condition.indexOf('?', start);
+                values.add(value);
+                sql.append(condition, start, mark).append('$').append(values.size());
+                start = mark + 1;
+            }
+            sql.append(condition, start, condition.length());
+            return this;
+        }
+    }
+
+    private static Where where(AccountSecurityContext security) {
+        Where where = new Where();
+        where.values.add(security.groupIdArray());
+        return where.and(VISIBLE).and(HEAD);
+    }
+
+    /** Mirrors {@code LogRepository.page}: same predicates on the cursor and the same page tokens. */
+    private Uni<Page<LogListItem>> page(AccountSecurityContext security, Where where, PageRequest request) {
+        if (security.hasNoGroups()) return Uni.createFrom().item(Page.empty());
+        LogCursor cursor = request.decodedCursor();
+        boolean backward = cursor != null && request.direction() == PageRequest.Direction.PREVIOUS;
+        if (cursor != null) {
+            OffsetDateTime time = cursor.zonedTime().toOffsetDateTime();
+            where.and(backward
+                ? "l.time_of_event >= ? AND (l.time_of_event > ? OR l.id > ?)"
+                : "l.time_of_event <= ? AND (l.time_of_event < ? OR l.id < ?)", time, time, cursor.id());
+        }
+        String order = backward ? " ORDER BY l.time_of_event ASC, l.id ASC" : " ORDER BY l.time_of_event DESC, l.id DESC";
+        where.values.add(request.size() + 1);
+        String sql = SELECT_ITEMS + where.sql + order + " LIMIT $" + where.values.size();
+
+        return client.preparedQuery(sql).execute(Tuple.from(where.values))
+            .flatMap(rows -> {
+                List<Object[]> selected = new ArrayList<>(rows.size());
+                for (Row row : rows) {
+                    selected.add(new Object[] {row.getLong("id"), row.getString("title"),
+                        row.getOffsetDateTime("time_of_event"), row.getString("username")});
+                }
+                return items(selected);
+            })
+            .map(rows -> toPage(rows, request, cursor, backward));
+    }
+
+    private static Page<LogListItem> toPage(List<LogListItem> rows, PageRequest request, LogCursor cursor,
+                                            boolean backward) {
+        boolean more = rows.size() > request.size();
+        List<LogListItem> items = new ArrayList<>(more ? rows.subList(0, request.size()) : rows);
+        if (backward) Collections.reverse(items);
+        if (items.isEmpty()) {
+            return new Page<>(items, backward ? request.cursor() : null, backward ? null : request.cursor());
+        }
+        String first = cursorOf(items.get(0)).encode();
+        String last = cursorOf(items.get(items.size() - 1)).encode();
+        String next = backward || more ? last : null;
+        String previous = backward ? (more ? first : null) : (cursor != null ? first : null);
+        return new Page<>(items, next, previous);
+    }
+
+    private static LogCursor cursorOf(LogListItem item) {
+        return LogCursor.of(item.timeOfEvent(), item.id());
+    }
+
+    /** Completes {@code id, title, time, author} rows with their tag titles, read in one batch. */
+    private Uni<List<LogListItem>> items(List<Object[]> rows) {
+        if (rows.isEmpty()) return Uni.createFrom().item(List.of());
+        Long[] ids = rows.stream().map(row -> (Long) row[0]).toArray(Long[]::new);
+        return client.preparedQuery(
+                "SELECT lt.log_id, t.title FROM log_tags lt JOIN tag t ON t.id = lt.tag_id " +
+                "WHERE lt.log_id = ANY($1) ORDER BY t.title")
+            .execute(Tuple.of(ids))
+            .map(tagRows -> {
+                Map<Long, List<String>> tags = new HashMap<>();
+                for (Row row : tagRows) {
+                    tags.computeIfAbsent(row.getLong("log_id"), id -> new ArrayList<>()).add(row.getString("title"));
+                }
+                List<LogListItem> items = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    Long id = (Long) row[0];
+                    items.add(new LogListItem(id, (String) row[1], ((OffsetDateTime) row[2]).toZonedDateTime(),
+                        (String) row[3], tags.getOrDefault(id, List.of()), false));
+                }
+                return items;
+            });
+    }
+}
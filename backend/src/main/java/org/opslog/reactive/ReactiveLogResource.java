@@ -0,0 +1,70 @@
+package org.opslog.reactive;
+
+import org.opslog.dto.LogListItem;
+import org.opslog.pagination.Page;
+import org.opslog.pagination.PageRequest;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotAuthorizedException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.SecurityContext;
+
+import java.time.DateTimeException;
+import java.time.ZonedDateTime;
+
+/**
+ * Log list endpoint of the reactive data path, served on the event loop without a worker thread.
+ * <p>
+ * {@code from} and {@code to} (ISO-8601, both or neither) restrict the time of event; paging uses
+ * the cursors of {@link Page}.
+ * </p>
+ */
+@Path("/logs")
+@IfBuildProperty(name = "opslog.data-path", stringValue = "reactive")
+public class ReactiveLogResource {
+
+    @Inject
+    ReactiveLogRepository logRepository;
+
+    @Inject
+    ReactiveAccountRepository accountRepository;
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Page<LogListItem>> list(@Context SecurityContext securityContext,
+                                       @QueryParam("from") String from,
+                                       @QueryParam("to") String to,
+                                       @QueryParam("cursor") String cursor,
+                                       @QueryParam("direction") PageRequest.Direction direction,
+                                       @QueryParam("size") @DefaultValue("50") int size) {
+        if (securityContext.getUserPrincipal() == null) throw new NotAuthorizedException("Bearer");
+        if ((from == null) != (to == null)) throw new BadRequestException("from and to go together");
+        PageRequest page;
+        ZonedDateTime fromTime;
+        ZonedDateTime toTime;
+        try {
+            page = new PageRequest(cursor, size, direction);
+            page.decodedCursor();
+            fromTime = from == null ? null : ZonedDateTime.parse(from);
+            toTime = to == null ? null : ZonedDateTime.parse(to);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+
+        return accountRepository.findIdByUsername(securityContext.getUserPrincipal().getName())
+            .onItem().ifNull().failWith(() -> new NotAuthorizedException("Bearer"))
+            .flatMap(accountRepository::securityContext)
+            .flatMap(security -> fromTime == null
+                ? logRepository.listAllVisible(security, page)
+                : logRepository.listByTimeRange(security, fromTime, toTime, page));
+    }
+}
@@ -1,14 +1,21 @@
 package org.opslog.repositories;
 
 import org.opslog.entities.Account;
+import org.opslog.search.LikePatterns;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class AccountRepository implements PanacheRepository<Account> {
 
+    // Must match the expression of the idx_account_full_name_trgm index
+    private static final String FULL_NAME =
+        "lower(coalesce(a.first_name, '') || ' ' || coalesce(a.last_name, ''))";
+
     // Find by email (used for login)
     public Account findByEmail(String email) {
         return find("email", email).firstResult();
@@ -19,6 +26,15 @@ public class AccountRepository implements PanacheRepository<Account> {
         return find("username", username).firstResult();
     }
 
+    // Map of username to id for resolving usernames in bulk imports
+    public Map<String, Long> findIdsByUsername() {
+        Map<String, Long> ids = new HashMap<>();
+        getEntityManager().createQuery("select a.username, a.id from Account a order by a.id", Object[].class)
+            .getResultStream()
+            .forEach(row -> ids.putIfAbsent((String) row[0], (Long) row[1]));
+        return ids;
+    }
+
     // Find accounts by full name
     public List<Account> findByFullName(String firstName, String lastName) {
         return list("firstName = ?1 and lastName = ?2", firstName, lastName);
@@ -29,9 +45,33 @@ public class AccountRepository implements PanacheRepository<Account> {
         return list("groupName = ?1", groupName);
     }
 
-    // Find accounts by username prefix within a group (useful for group searches)
+    // Find accounts by username prefix within a group (useful for group searches).
+    // Case-insensitive; lower(username) LIKE 'prefix%' is served by the trigram index.
     public List<Account> findByUsernamePrefix(String prefix, String groupName) {
-        return list("username like ?1 and groupName = ?2", prefix + "%", groupName);
+        return find(
+            "select a from Account a join a.groups g where lower(a.username) like ?1 and g.name = ?2",
+            LikePatterns.startsWith(prefix), groupName
+        ).list();
+    }
+
+    // Type-ahead search over username, email and full name: substring or fuzzy matches,
+    // ranked by the best trigram similarity of the three. Each column has a pg_trgm GiST index.
+    @SuppressWarnings("unchecked")
+    public List<Account> search(String term, int limit) {
+        if (term == null || term.isBlank()) return List.of();
+        String normalized = term.trim().toLowerCase();
+        return getEntityManager().createNativeQuery(
+                "SELECT a.* FROM account a " +
+                "WHERE lower(a.username) LIKE :pattern OR lower(a.username) % :term " +
+                "OR lower(a.email) LIKE :pattern OR lower(a.email) % :term " +
+                "OR " + FULL_NAME + " LIKE :pattern OR " + FULL_NAME + " % :term " +
+                "ORDER BY greatest(similarity(lower(a.username), :term), similarity(lower(a.email), :term), " +
+                "similarity(" + FULL_NAME + ", :term)) DESC, a.id " +
+                "LIMIT :limit", Account.class)
+            .setParameter("pattern", LikePatterns.contains(normalized))
+            .setParameter("term", normalized)
+            .setParameter("limit", limit)
+            .getResultList();
     }
 }
 
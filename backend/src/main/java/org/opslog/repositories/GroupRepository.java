@@ -3,9 +3,16 @@ package org.opslog.repositories;
 import org.opslog.entities.Account;
 import org.opslog.entities.Group;
 import org.opslog.enums.AppGroup;
+import org.opslog.security.AccountSecurityContexts;
+import org.opslog.security.MembershipChange;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+
+import org.hibernate.Cache;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,10 +29,22 @@ import java.util.Optional;
  *     <li>Checking if an account is a member of a group</li>
  * </ul>
  * </p>
+ * <p>
+ * Groups and memberships are served from the second-level cache; lookups use the query cache.
+ * </p>
  */
 @ApplicationScoped
 public class GroupRepository implements PanacheRepository<Group> {
 
+    @Inject
+    LogVisibilityRepository logVisibilityRepository;
+
+    @Inject
+    AccountSecurityContexts securityContexts;
+
+    @Inject
+    Event<MembershipChange> membershipChanges;
+
     // --------------------------------------------
     // --- Basic Queries ---
     // --------------------------------------------
@@ -34,7 +53,7 @@ public class GroupRepository implements PanacheRepository<Group> {
      * Returns all groups.
      */
     public List<Group> findAllGroups() {
-        return listAll();
+        return findAll().withHint(HibernateHints.HINT_CACHEABLE, true).list();
     }
 
     /**
@@ -48,14 +67,16 @@ public class GroupRepository implements PanacheRepository<Group> {
      * Finds a system-defined group by its ApplicationGroup enum.
      */
     public Optional<Group> findByApplicationGroup(AppGroup appGroup) {
-        return find("applicationGroup", appGroup).firstResultOptional();
+        return find("applicationGroup", appGroup).withHint(HibernateHints.HINT_CACHEABLE, true).firstResultOptional();
     }
 
     /**
      * Finds a group by its name (case-insensitive).
      */
     public Optional<Group> findByName(String name) {
-        return find("lower(name) = ?1", name.toLowerCase()).firstResultOptional();
+        return find("lower(name) = ?1", name.toLowerCase())
+            .withHint(HibernateHints.HINT_CACHEABLE, true)
+            .firstResultOptional();
     }
 
     // --------------------------------------------
@@ -71,22 +92,41 @@ public class GroupRepository implements PanacheRepository<Group> {
 
     /**
      * Adds an account to a group if not already a member.
+     * Logs created by the account become visible to the group.
      */
     public void addAccountToGroup(Account account, Group group) {
         if (!isAccountMemberOfGroup(account, group)) {
             account.getGroups().add(group);
+            logVisibilityRepository.grantForMembership(account, group);
+            evictGroupsOf(account);
         }
     }
 
     /**
      * Removes an account from a group if it is a user-defined group.
      * System-defined application groups cannot be removed.
+     * Logs created by the account are no longer visible to the group.
      */
     public boolean removeAccountFromGroup(Account account, Group group) {
         if (group.getAppGroup() != null) {
             // Cannot remove from system-defined group
             return false;
         }
-        return account.getGroups().remove(group);
+        if (!account.getGroups().remove(group)) return false;
+        logVisibilityRepository.revokeForMembership(account, group);
+        evictGroupsOf(account);
+        return true;
+    }
+
+    /**
+     * Drops the cached membership and security context of the account. Hibernate refreshes the collection cache itself
+     * when a managed account is flushed; this also covers accounts passed in detached.
+     */
+    private void evictGroupsOf(Account account) {
+        getEntityManager().getEntityManagerFactory().getCache().unwrap(Cache.class)
+            .evictCollectionData(Account.GROUPS_CACHE_REGION, account.getId());
+        // Dropped now for the rest of this transaction, and again once it completed
+        securityContexts.invalidate(account.getId());
+        membershipChanges.fire(new MembershipChange(account.getId()));
     }
 }
@@ -0,0 +1,40 @@
+package org.opslog.repositories;
+
+import org.opslog.entities.Log;
+
+/**
+ * Which associations of {@link Log} a query loads together with the logs, chosen with
+ * {@link LogFilter#fetch(LogFetch)}.
+ * <p>
+ * Associations a plan leaves out are still loaded on first access, but in batches of
+ * {@value Log#FETCH_BATCH_SIZE} logs (see {@link Log}), not one statement per log.
+ * </p>
+ */
+public enum LogFetch {
+
+    /** Only the logs; for callers that do not touch associations, e.g. exports of ids and text. */
+    LAZY(null, false),
+
+    /** Author and reviser joined into the log statement. Suits rendering lists of logs. */
+    LISTING(Log.GRAPH_LISTING, false),
+
+    /**
+     * Author, reviser and parent joined, tags loaded eagerly in batches right after the logs.
+     * Suits showing logs in full.
+     */
+    DETAIL(Log.GRAPH_DETAIL, true);
+
+    private final String graph;
+    private final boolean collections;
+
+    LogFetch(String graph, boolean collections) {
+        this.graph = graph;
+        this.collections = collections;
+    }
+
+    /** The entity graph applied to the query, or {@code null} for none. */
+    String graph() { return graph; }
+
+    /** Whether the graph contains collections, which cannot be joined into a paged query. */
+    boolean collections() { return collections; }
+}
@@ -0,0 +1,228 @@
+package org.opslog.repositories;
+
+import org.opslog.entities.Account;
+import org.opslog.entities.Group;
+import org.opslog.entities.Tag;
+import org.opslog.search.LikePatterns;
+
+import io.quarkus.panache.common.Parameters;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Composable filter over logs, executed by {@link LogRepository#findByFilter(Account, LogFilter)}
+ * and its paged and streaming variants.
+ * <p>
+ * Every condition added is AND-ed, and the whole filter compiles to a single HQL statement in which
+ * the visibility check for the requesting account appears exactly once:
+ * <pre>
+ *     LogFilter filter = LogFilter.create()
+ *         .taggedWithAll(Set.of(x, y))
+ *         .createdByAny(accounts)
+ *         .since(ZonedDateTime.now().minusHours(24))
+ *         .titleContains("pump")
+ *         .sort(LogFilter.Sort.OLDEST_EVENT_FIRST);
+ *     Page&lt;Log&gt; page = logRepository.findByFilter(account, filter, PageRequest.first(50));
+ * </pre>
+ * Conditions given an empty collection (no tags, no accounts, ...) match nothing, like the
+ * corresponding {@code findBy...} methods. Only chain heads match unless
+ * {@link #includeRevisions()} is set. Superseded revisions may store their title and description
+ * as a delta against their parent, so text conditions cannot be combined with revisions.
+ * </p>
+ */
+public final class LogFilter {
+
+    /** Result order; ties on the event time are broken by id in the same direction. */
+    public enum Sort { NEWEST_EVENT_FIRST, OLDEST_EVENT_FIRST }
+
+    private static final String TEXT_WITH_REVISIONS =
+        "Text conditions only apply to chain heads; superseded revisions may store their text as a delta";
+
+    private final List<String> conditions = new ArrayList<>();
+    private final Parameters params = new Parameters();
+    private boolean matchesNothing;
+    private boolean revisions;
+    private boolean text;
+    private Sort sort = Sort.NEWEST_EVENT_FIRST;
+    private Integer limit;
+    private LogFetch fetch = LogFetch.LISTING;
+
+    private LogFilter() {}
+
+    /** A filter matching every log visible to the requesting account. */
+    public static LogFilter create() {
+        return new LogFilter();
+    }
+
+    // --- Time --- //
+
+    /** Events within {@code [from, to]}. */
+    public LogFilter between(ZonedDateTime from, ZonedDateTime to) {
+        return where("l.timeOfEvent between :%s and :%s", from, to);
+    }
+
+    /** Events at or after {@code from}. */
+    public LogFilter since(ZonedDateTime from) {
+        return where("l.timeOfEvent >= :%s", from);
+    }
+
+    /** Events strictly before {@code to}. */
+    public LogFilter before(ZonedDateTime to) {
+        return where("l.timeOfEvent < :%s", to);
+    }
+
+    /** Events at exactly {@code time}. */
+    public LogFilter at(ZonedDateTime time) {
+        return where("l.timeOfEvent = :%s", time);
+    }
+
+    // --- Authors --- //
+
+    public LogFilter createdBy(Account account) {
+        return where("l.createdBy = :%s", account);
+    }
+
+    public LogFilter createdByAny(Collection<Account> accounts) {
+        if (accounts == null || accounts.isEmpty()) return nothing();
+        return where("l.createdBy in :%s", accounts);
+    }
+
+    // --- Groups --- //
+
+    /** Logs visible to the group (in addition to being visible to the requesting account). */
+    public LogFilter inGroup(Group group) {
+        return where("exists (select 1 from LogVisibleGroup vg where vg.logId = l.id and vg.groupId = :%s)", group.getId());
+    }
+
+    /** Logs visible to any of the groups. */
+    public LogFilter inAnyGroup(Collection<Group> groups) {
+        if (groups == null || groups.isEmpty()) return nothing();
+        return where("exists (select 1 from LogVisibleGroup vg where vg.logId = l.id and vg.groupId in :%s)",
+            groups.stream().map(Group::getId).toList());
+    }
+
+    // --- Tags --- //
+
+    public LogFilter taggedWith(Tag tag) {
+        return where(":%s member of l.tags", tag);
+    }
+
+    /** Logs carrying at least one of the tags. */
+    public LogFilter taggedWithAny(Collection<Tag> tags) {
+        if (tags == null || tags.isEmpty()) return nothing();
+        return where("exists (select 1 from Log lt join lt.tags t where lt.id = l.id and t in :%s)", tags);
+    }
+
+    /** Logs carrying every one of the tags. */
+    public LogFilter taggedWithAll(Collection<Tag> tags) {
+        if (tags == null || tags.isEmpty()) return nothing();
+        List<Tag> distinct = List.copyOf(new HashSet<>(tags));
+        return where("(select count(t) from Log lt join lt.tags t where lt.id = l.id and t in :%s) = :%s",
+            distinct, (long) distinct.size());
+    }
+
+    // --- Text --- //
+
+    public LogFilter titleEquals(String title) {
+        return text().where("l.title = :%s", title);
+    }
+
+    /** Case-insensitive substring match; wildcards in the input are matched literally. */
+    public LogFilter titleContains(String substring) {
+        return text().where("lower(l.title) like :%s", LikePatterns.contains(substring));
+    }
+
+    public LogFilter descriptionEquals(String description) {
+        return text().where("l.description = :%s", description);
+    }
+
+    /** Case-insensitive substring match; wildcards in the input are matched literally. */
+    public LogFilter descriptionContains(String substring) {
+        return text().where("lower(l.description) like :%s", LikePatterns.contains(substring));
+    }
+
+    private LogFilter text() {
+        if (revisions) throw new IllegalArgumentException(TEXT_WITH_REVISIONS);
+        text = true;
+        return this;
+    }
+
+    // --- Shape of the result --- //
+
+    /**
+     * Also match superseded revisions, not only the latest revision of each chain.
+     *
+     * @throws IllegalArgumentException if the filter has a text condition
+     */
+    public LogFilter includeRevisions() {
+        if (text) throw new IllegalArgumentException(TEXT_WITH_REVISIONS);
+        this.revisions = true;
+        return this;
+    }
+
+    public LogFilter sort(Sort sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    /** Maximum number of logs returned by {@link LogRepository#findByFilter(Account, LogFilter)}. */
+    public LogFilter limit(int limit) {
+        if (limit < 1) throw new IllegalArgumentException("limit must be positive");
+        this.limit = limit;
+        return this;
+    }
+
+    /** Associations loaded together with the logs; {@link LogFetch#LISTING} unless set. */
+    public LogFilter fetch(LogFetch fetch) {
+        this.fetch = fetch;
+        return this;
+    }
+
+    // --- Compilation, used by LogRepository --- //
+
+    /**
+     * Adds a condition on alias {@code l}. Each {@code %s} is replaced by a generated parameter
+     * name bound to the matching value, so conditions never clash.
+     */
+    private LogFilter where(String template, Object... values) {
+        Object[] names = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            String name = "f" + params.map().size();
+            params.and(name, values[i]);
+            names[i] = name;
+        }
+        conditions.add(String.format(template, names));
+        return this;
+    }
+
+    private LogFilter nothing() {
+        matchesNothing = true;
+        return this;
+    }
+
+    boolean matchesNothing() { return matchesNothing; }
+
+    boolean revisions() { return revisions; }
+
+    Sort sort() { return sort; }
+
+    Integer limit() { return limit; }
+
+    LogFetch fetch() { return fetch; }
+
+    /** The AND-ed conditions, or {@code null} if there are none. */
+    String condition() {
+        return conditions.isEmpty() ? null : String.join(" and ", conditions);
+    }
+
+    /** A copy of the bound parameters, so the filter can be executed more than once. */
+    Parameters parameters() {
+        Parameters copy = new Parameters();
+        params.map().forEach(copy::and);
+        return copy;
+    }
+}
@@ -1,19 +1,57 @@
 package org.opslog.repositories;
 
+import org.opslog.archive.LogArchive;
+import org.opslog.dto.LogListItem;
 import org.opslog.entities.Account;
 import org.opslog.entities.Group;
 import org.opslog.entities.Log;
 import org.opslog.entities.Tag;
-import org.opslog.enums.AppGroup;
 
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.TypedQuery;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.CacheMode;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.hibernate.query.SelectionQuery;
+
+import org.opslog.index.LogBitmapIndex;
+import org.opslog.index.LogIndexChange;
+import org.opslog.pagination.LogCursor;
+import org.opslog.pagination.Page;
+import org.opslog.pagination.PageRequest;
+import org.opslog.security.AccountSecurityContext;
+import org.opslog.security.AccountSecurityContexts;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
-import java.util.Comparator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Repository for querying and managing Log entities.
@@ -23,6 +61,12 @@ import java.util.Comparator;
  * in groups that the account belongs to.
  * </p>
  * <p>
+ * Visibility is resolved through the denormalized {@code log_visible_group} table
+ * (see {@link LogVisibilityRepository}), so every query is a single indexed
+ * semi-join instead of a per-row subquery over accounts and their groups. The group ids and the
+ * admin flag of the requesting account come from its cached {@link AccountSecurityContext}.
+ * </p>
+ * <p>
  * Features include:
  * <ul>
  *     <li>Queries by time range or specific ZonedDateTime</li>
@@ -33,10 +77,420 @@ import java.util.Comparator;
  *     <li>Retrieving all revisions sorted from most recent to original</li>
  * </ul>
  * </p>
+ * <p>
+ * Listings only return the head (latest revision) of each revision chain, read through a partial
+ * index on {@code is_head}; superseded revisions are reached through {@link #findRevisionChain}.
+ * </p>
+ * <p>
+ * The {@code findBy...} methods are shorthands for a single condition. Any combination of them is
+ * expressed as one {@link LogFilter} and run with {@link #findByFilter(Account, LogFilter)}, which
+ * compiles it into a single statement instead of intersecting several result lists.
+ * </p>
+ * <p>
+ * Every finder has a paged overload taking a {@link PageRequest}. Pages are ordered from the most
+ * recent event to the oldest on {@code (timeOfEvent, id)} and navigated with keyset cursors, so the
+ * cost of a page does not depend on how deep a client has scrolled.
+ * </p>
+ * <p>
+ * For exports and full scans the {@code streamBy...} variants read through a server-side cursor
+ * and periodically clear the persistence context, so they run in constant memory. They must be
+ * consumed inside a transaction and closed afterwards (try-with-resources).
+ * </p>
+ * <p>
+ * Finders returning entities join the author and reviser of each log unless the filter picks
+ * another {@link LogFetch} plan; other associations are batch fetched on access.
+ * List screens use {@link #listByFilter(Account, LogFilter, PageRequest)}, which projects each row
+ * into a {@link LogListItem} instead of loading entities and their lazy associations.
+ * </p>
  */
 @ApplicationScoped
 public class LogRepository implements PanacheRepository<Log> {
 
+    /** Restricts the aliased log {@code l} to logs visible to any of {@code :groupIds}. */
+    private static final String VISIBLE =
+        "exists (select 1 from LogVisibleGroup v where v.logId = l.id and v.groupId in :groupIds)";
+
+    /** Restricts the aliased log {@code l} to the latest revision of each chain. */
+    private static final String HEAD = "l.head = true";
+
+    @Inject
+    LogVisibilityRepository logVisibilityRepository;
+
+    @Inject
+    AccountSecurityContexts securityContexts;
+
+    @Inject
+    LogBitmapIndex bitmapIndex;
+
+    @Inject
+    LogArchive archive;
+
+    @Inject
+    Event<LogIndexChange> indexChanges;
+
+    /** Rows fetched per round-trip by the streaming finders. */
+    @ConfigProperty(name = "opslog.stream.fetch-size", defaultValue = "500")
+    int streamFetchSize;
+
+    /** Number of streamed rows after which they are detached from the persistence context. */
+    @ConfigProperty(name = "opslog.stream.clear-interval", defaultValue = "1000")
+    int streamClearInterval;
+
+    /** Every n-th revision of a chain is kept in full; the ones in between are stored as deltas. */
+    @ConfigProperty(name = "opslog.revisions.snapshot-interval", defaultValue = "10")
+    int snapshotInterval;
+
+    /** Fails the startup on stream settings that would break the streaming finders on first use. */
+    void validateConfig(@Observes StartupEvent event) {
+        if (streamFetchSize < 1) throw new IllegalStateException("opslog.stream.fetch-size must be at least 1");
+        if (streamClearInterval < 1) throw new IllegalStateException("opslog.stream.clear-interval must be at least 1");
+    }
+
+    /**
+     * A finder condition on alias {@code l} together with its named parameters.
+     * Unless {@code history} is set, only chain heads match.
+     */
+    private record Criteria(String condition, Parameters params, boolean history) {
+        Criteria(String condition, Parameters params) {
+            this(condition, params, false);
+        }
+
+        static Criteria of(String condition, String name, Object value) {
+            return new Criteria(condition, Parameters.with(name, value));
+        }
+
+        static Criteria of(LogFilter filter) {
+            return new Criteria(filter.condition(), filter.parameters(), filter.revisions());
+        }
+
+        /** The same criteria, matching superseded revisions as well. */
+        Criteria withHistory() {
+            return new Criteria(condition, params, true);
+        }
+
+        String where() {
+            String scope = history ? VISIBLE : HEAD + " and " + VISIBLE;
+            return condition == null ? scope : condition + " and " + scope;
+        }
+    }
+
+    /** Parameters carrying the visibility scope of the account. */
+    private Parameters visibleTo(Account account) {
+        return Parameters.with("groupIds", securityContexts.of(account).groupIdList());
+    }
+
+    /**
+     * Keyset ordering of a paged listing: a time expression on alias {@code l}, tie-broken by id.
+     */
+    private record KeysetOrder(String expression, boolean descending, Function<Log, ZonedDateTime> key) {
+        /** Listings: most recent event first. */
+        static final KeysetOrder NEWEST_EVENT_FIRST =
+            new KeysetOrder("l.timeOfEvent", true, Log::getTimeOfEvent);
+        /** Listings: oldest event first. */
+        static final KeysetOrder OLDEST_EVENT_FIRST =
+            new KeysetOrder("l.timeOfEvent", false, Log::getTimeOfEvent);
+        /** Revision history: original first, then revisions in the order they were made. */
+        static final KeysetOrder REVISION_HISTORY =
+            new KeysetOrder("coalesce(l.revisedAt, l.createdAt)", false,
+                log -> log.getRevisedAt() != null ? log.getRevisedAt() : log.getCreatedAt());
+
+        static KeysetOrder of(LogFilter.Sort sort) {
+            return switch (sort) {
+                case NEWEST_EVENT_FIRST -> NEWEST_EVENT_FIRST;
+                case OLDEST_EVENT_FIRST -> OLDEST_EVENT_FIRST;
+            };
+        }
+
+        String orderBy() {
+            String direction = descending ? " desc" : " asc";
+            return " order by " + expression + direction + ", l.id" + direction;
+        }
+    }
+
+    private Page<Log> pageVisible(Account account, Criteria criteria, PageRequest request, KeysetOrder order,
+                                  LogFetch fetch) {
+        AccountSecurityContext security = securityContexts.of(account);
+        if (security.hasNoGroups()) return Page.empty();
+        return page(criteria.where(), criteria.params().and("groupIds", security.groupIdList()), request, order, fetch);
+    }
+
+    private Page<Log> page(String where, Parameters params, PageRequest request) {
+        return page(where, params, request, KeysetOrder.NEWEST_EVENT_FIRST, LogFetch.LISTING);
+    }
+
+    /**
+     * The entity graph implementing a fetch plan. Collections cannot be joined into a query with a
+     * row limit without paging in memory, so {@code ranged} queries only join the to-one
+     * associations and leave the rest to {@link #initialize(List, LogFetch)}.
+     */
+    private EntityGraph<?> graphOf(LogFetch fetch, boolean ranged) {
+        if (fetch.graph() == null) return null;
+        return getEntityManager().getEntityGraph(ranged && fetch.collections() ? Log.GRAPH_LISTING : fetch.graph());
+    }
+
+    /** Loads what a ranged query could not join; batch fetching makes this a few statements per page. */
+    private static List<Log> initialize(List<Log> logs, LogFetch fetch) {
+        if (fetch.collections()) {
+            for (Log log : logs) {
+                Hibernate.initialize(log.getTags());
+                Hibernate.initialize(log.getParent());
+            }
+        }
+        return logs;
+    }
+
+    private PanacheQuery<Log> findWith(String query, Parameters params, EntityGraph<?> graph) {
+        PanacheQuery<Log> found = find(query, params);
+        return graph == null ? found : found.withHint(SpecHints.HINT_SPEC_FETCH_GRAPH, graph);
+    }
+
+    /**
+     * Runs a keyset paged query over {@code from Log l where <where>}.
+     * <p>
+     * One extra row is fetched to detect whether another page exists. Backward pages are read in
+     * the opposite order from the cursor and reversed, so both directions use the same index range.
+     * </p>
+     */
+    private Page<Log> page(String where, Parameters params, PageRequest request, KeysetOrder order, LogFetch fetch) {
+        EntityGraph<?> graph = graphOf(fetch, true);
+        Page<Log> page = page(where, params, request, order,
+            (tail, p, rows) -> findWith("from Log l where " + tail, p, graph).range(0, rows - 1).list(),
+            log -> LogCursor.of(order.key().apply(log), log.getId()));
+        initialize(page.items(), fetch);
+        return page;
+    }
+
+    /** Fetches at most {@code rows} rows of {@code ... from Log l where <tail>}. */
+    @FunctionalInterface
+    private interface PageQuery<T> {
+        List<T> fetch(String tail, Parameters params, int rows);
+    }
+
+    /**
+     * Keyset paging shared by entity and projection listings: {@code query} receives the where and
+     * order by clauses, {@code cursorOf} turns a row back into its position in the order.
+     */
+    private <T> Page<T> page(String where, Parameters params, PageRequest request, KeysetOrder order,
+                             PageQuery<T> query, Function<T, LogCursor> cursorOf) {
+        LogCursor cursor = request.decodedCursor();
+        boolean backward = cursor != null && request.direction() == PageRequest.Direction.PREVIOUS;
+        boolean scanDescending = order.descending() != backward;
+        String key = order.expression();
+
+        StringBuilder tail = new StringBuilder(where);
+        if (cursor != null) {
+            tail.append(scanDescending
+                ? " and " + key + " <= :cursorTime and (" + key + " < :cursorTime or l.id < :cursorId)"
+                : " and " + key + " >= :cursorTime and (" + key + " > :cursorTime or l.id > :cursorId)");
+            params.and("cursorTime", cursor.zonedTime()).and("cursorId", cursor.id());
+        }
+        tail.append(scanDescending
+            ? " order by " + key + " desc, l.id desc"
+            : " order by " + key + " asc, l.id asc");
+
+        List<T> rows = query.fetch(tail.toString(), params, request.size() + 1);
+        boolean more = rows.size() > request.size();
+        List<T> items = new ArrayList<>(more ? rows.subList(0, request.size()) : rows);
+        if (backward) Collections.reverse(items);
+        if (items.isEmpty()) {
+            // Navigating past either end keeps a way back to where the client came from
+            return new Page<>(items, backward ? request.cursor() : null, backward ? null : request.cursor());
+        }
+
+        String first = cursorOf.apply(items.get(0)).encode();
+        String last = cursorOf.apply(items.get(items.size() - 1)).encode();
+        String next = backward || more ? last : null;
+        String previous = backward ? (more ? first : null) : (cursor != null ? first : null);
+        return new Page<>(items, next, previous);
+    }
+
+    /** Streams logs matching the criteria and visible to the account. */
+    private Stream<Log> streamVisible(Account account, Criteria criteria, KeysetOrder order, LogFetch fetch) {
+        AccountSecurityContext security = securityContexts.of(account);
+        if (security.hasNoGroups()) return Stream.empty();
+        return scroll("from Log l where " + criteria.where() + order.orderBy(),
+            criteria.params().and("groupIds", security.groupIdList()), fetch);
+    }
+
+    /**
+     * Streams the query through a forward-only JDBC cursor.
+     * <p>
+     * Rows are read read-only and bypass the second-level cache. Every
+     * {@code opslog.stream.clear-interval} rows, the rows this stream loaded are detached so the
+     * persistence context stays bounded; entities the calling transaction had loaded before, and its
+     * pending changes, are left alone. PostgreSQL only honours the fetch size outside of auto-commit,
+     * hence the transaction requirement.
+     * </p>
+     * <p>
+     * Only the to-one associations of the fetch plan are joined; collections of streamed rows load
+     * lazily, in batches, until the rows are detached.
+     * </p>
+     */
+    private Stream<Log> scroll(String query, Parameters params, LogFetch fetch) {
+        Session session = getEntityManager().unwrap(Session.class);
+        SelectionQuery<Log> selection = session.createSelectionQuery(query, Log.class)
+            .setFetchSize(streamFetchSize)
+            .setReadOnly(true)
+            .setCacheMode(CacheMode.IGNORE);
+        EntityGraph<?> graph = graphOf(fetch, true);
+        if (graph != null) selection.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, graph);
+        params.map().forEach(selection::setParameter);
+
+        ScrollableResults<Log> results = selection.scroll(ScrollMode.FORWARD_ONLY);
+        return StreamSupport.stream(new ScrollSpliterator(session, results, streamClearInterval), false)
+            .onClose(results::close);
+    }
+
+    /**
+     * Adapts {@link ScrollableResults} to a stream, detaching the streamed rows at a fixed interval.
+     * A row the session already held as a modifiable entity was loaded by the caller, not by the
+     * read-only scroll, and stays managed.
+     */
+    private static final class ScrollSpliterator extends Spliterators.AbstractSpliterator<Log> {
+        private final Session session;
+        private final ScrollableResults<Log> results;
+        private final int clearInterval;
+        private final List<Log> loaded;
+
+        ScrollSpliterator(Session session, ScrollableResults<Log> results, int clearInterval) {
+            super(Long.MAX_VALUE, ORDERED | NONNULL);
+            this.session = session;
+            this.results = results;
+            this.clearInterval = clearInterval;
+            this.loaded = new ArrayList<>(clearInterval);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Log> action) {
+            if (loaded.size() == clearInterval) detachLoaded();
+            if (!results.next()) return false;
+            Log log = results.get();
+            if (session.isReadOnly(log)) loaded.add(log);
+            action.accept(log);
+            return true;
+        }
+
+        private void detachLoaded() {
+            for (Log log : loaded) {
+                if (session.contains(log)) session.detach(log);
+            }
+            loaded.clear();
+        }
+    }
+
+    // --------------------------------------------
+    // --- Composable Filters ---
+    // --------------------------------------------
+
+    /**
+     * Returns the logs matching the filter and visible to the account, in the filter's sort order
+     * and up to its limit. The filter and the visibility check run as one statement.
+     */
+    public List<Log> findByFilter(Account account, LogFilter filter) {
+        AccountSecurityContext security = securityContexts.of(account);
+        if (security.hasNoGroups() || filter.matchesNothing()) return List.of();
+        Criteria criteria = Criteria.of(filter);
+        boolean ranged = filter.limit() != null;
+        PanacheQuery<Log> query = findWith("from Log l where " + criteria.where() + KeysetOrder.of(filter.sort()).orderBy(),
+            criteria.params().and("groupIds", security.groupIdList()), graphOf(filter.fetch(), ranged));
+        List<Log> logs = ranged ? initialize(query.range(0, filter.limit() - 1).list(), filter.fetch()) : query.list();
+        return filter.revisions() ? decode(logs) : logs;
+    }
+
+    /** Paged variant of {@link #findByFilter(Account, LogFilter)}; the page size replaces the limit. */
+    public Page<Log> findByFilter(Account account, LogFilter filter, PageRequest page) {
+        if (filter.matchesNothing()) return Page.empty();
+        Page<Log> logs = pageVisible(account, Criteria.of(filter), page, KeysetOrder.of(filter.sort()), filter.fetch());
+        return filter.revisions() ? decode(logs) : logs;
+    }
+
+    /** Streaming variant of {@link #findByFilter(Account, LogFilter)}; the limit is ignored. */
+    public Stream<Log> streamByFilter(Account account, LogFilter filter) {
+        if (filter.matchesNothing()) return Stream.empty();
+        Stream<Log> logs = streamVisible(account, Criteria.of(filter), KeysetOrder.of(filter.sort()), filter.fetch());
+        // Each row is decoded as it is emitted, before the stream detaches it
+        return filter.revisions() ? logs.map(Log::decode) : logs;
+    }
+
+    // --------------------------------------------
+    // --- List Views ---
+    // --------------------------------------------
+
+    /**
+     * Returns list view rows of the logs matching the filter and visible to the account, in the
+     * filter's sort order and up to its limit.
+     * <p>
+     * However many rows are listed, they are read with two statements: the logs joined to their
+     * authors, then the tag titles of all of them. Both select plain columns, so nothing enters the
+     * persistence context or is dirty-checked at flush. Only chain heads can be listed: superseded
+     * revisions may store their title as a delta and are read as entities through
+     * {@link #findRevisionChain}.
+     * </p>
+     *
+     * @throws IllegalArgumentException if the filter includes revisions
+     */
+    public List<LogListItem> listByFilter(Account account, LogFilter filter) {
+        AccountSecurityContext security = securityContexts.of(account);
+        if (security.hasNoGroups() || filter.matchesNothing()) return List.of();
+        Criteria criteria = listCriteria(filter);
+        KeysetOrder order = KeysetOrder.of(filter.sort());
+        return listItems(selectListRows(criteria.where() + order.orderBy(),
+            criteria.params().and("groupIds", security.groupIdList()), order, filter.limit()));
+    }
+
+    /** Paged variant of {@link #listByFilter(Account, LogFilter)}; the page size replaces the limit. */
+    public Page<LogListItem> listByFilter(Account account, LogFilter filter, PageRequest page) {
+        AccountSecurityContext security = securityContexts.of(account);
+        if (security.hasNoGroups() || filter.matchesNothing()) return Page.empty();
+        Criteria criteria = listCriteria(filter);
+        KeysetOrder order = KeysetOrder.of(filter.sort());
+        Page<Object[]> rows = page(criteria.where(), criteria.params().and("groupIds", security.groupIdList()),
+            page, order,
+            (tail, params, limit) -> selectListRows(tail, params, order, limit),
+            row -> LogCursor.of((ZonedDateTime) row[4], (Long) row[0]));
+        return new Page<>(listItems(rows.items()), rows.next(), rows.previous());
+    }
+
+    private static Criteria listCriteria(LogFilter filter) {
+        if (filter.revisions()) {
+            throw new IllegalArgumentException("List views only contain chain heads; use findRevisionChain for revisions");
+        }
+        return Criteria.of(filter);
+    }
+
+    /**
+     * Selects {@code id, title, timeOfEvent, author username, keyset value} of the logs matching
+     * {@code where <tail>}.
+     */
+    private List<Object[]> selectListRows(String tail, Parameters params, KeysetOrder order, Integer rows) {
+        TypedQuery<Object[]> query = getEntityManager().createQuery(
+            "select l.id, l.title, l.timeOfEvent, a.username, " + order.expression() +
+            " from Log l join l.createdBy a where " + tail, Object[].class);
+        if (rows != null) query.setMaxResults(rows);
+        params.map().forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    /** Completes selected rows with the tag titles of all of them, read in one batch. */
+    private List<LogListItem> listItems(List<Object[]> rows) {
+        if (rows.isEmpty()) return List.of();
+        List<Long> ids = rows.stream().map(row -> (Long) row[0]).toList();
+        Map<Long, List<String>> tags = new HashMap<>();
+        getEntityManager()
+            .createQuery("select l.id, t.title from Log l join l.tags t where l.id in :ids order by t.title", Object[].class)
+            .setParameter("ids", ids)
+            .getResultList()
+            .forEach(row -> tags.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]));
+
+        List<LogListItem> items = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            items.add(new LogListItem(id, (String) row[1], (ZonedDateTime) row[2], (String) row[3],
+                tags.getOrDefault(id, List.of()), false));
+        }
+        return items;
+    }
+
     // --------------------------------------------
     // --- Account-scoped Queries for Visibility ---
     // --------------------------------------------
@@ -46,13 +500,17 @@ public class LogRepository implements PanacheRepository<Log> {
      * Only logs created by accounts in groups that the account belongs to will be returned.
      */
     public List<Log> findAllVisibleLogs(Account account) {
-        return list(
-            "EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g " +
-            "WHERE g IN ?1 AND a = createdBy" +
-            ")",
-            account.getGroups()
-        );
+        return findByFilter(account, LogFilter.create());
+    }
+
+    /** Paged variant of {@link #findAllVisibleLogs(Account)}. */
+    public Page<Log> findAllVisibleLogs(Account account, PageRequest page) {
+        return findByFilter(account, LogFilter.create(), page);
+    }
+
+    /** Streaming variant of {@link #findAllVisibleLogs(Account)}. */
+    public Stream<Log> streamAllVisibleLogs(Account account) {
+        return streamByFilter(account, LogFilter.create());
     }
 
     // --------------------------------------------
@@ -61,42 +519,87 @@ public class LogRepository implements PanacheRepository<Log> {
 
     /**
      * Finds logs visible to the account within a specific time range.
+     * Logs moved to the {@link LogArchive} are not entities any more; {@link #listByTimeRange} includes them.
      */
     public List<Log> findByTimeRange(Account account, ZonedDateTime from, ZonedDateTime to) {
-        return list(
-            "timeOfEvent between ?1 and ?2 AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?3 AND a = createdBy" +
-            ")",
-            from, to, account.getGroups()
-        );
+        return findByFilter(account, LogFilter.create().between(from, to));
+    }
+
+    /** Paged variant of {@link #findByTimeRange(Account, ZonedDateTime, ZonedDateTime)}. */
+    public Page<Log> findByTimeRange(Account account, ZonedDateTime from, ZonedDateTime to, PageRequest page) {
+        return findByFilter(account, LogFilter.create().between(from, to), page);
+    }
+
+    /** Streaming variant of {@link #findByTimeRange(Account, ZonedDateTime, ZonedDateTime)}. */
+    public Stream<Log> streamByTimeRange(Account account, ZonedDateTime from, ZonedDateTime to) {
+        return streamByFilter(account, LogFilter.create().between(from, to));
+    }
+
+    /**
+     * List view rows of the logs visible to the account within a time range, newest first,
+     * including logs already moved to the archive. Archive segments outside the range are skipped
+     * by their summary, so recent ranges cost the same as {@link #listByFilter(Account, LogFilter)}.
+     */
+    public List<LogListItem> listByTimeRange(Account account, ZonedDateTime from, ZonedDateTime to) {
+        List<LogListItem> live = listByFilter(account, LogFilter.create().between(from, to));
+        List<LogListItem> archived = archive.list(securityContexts.of(account), from, to);
+        if (archived.isEmpty()) return live;
+
+        List<LogListItem> merged = new ArrayList<>(live.size() + archived.size());
+        int i = 0;
+        int j = 0;
+        while (i < live.size() || j < archived.size()) {
+            boolean takeLive = j == archived.size() || (i < live.size() && !isOlder(live.get(i), archived.get(j)));
+            merged.add(takeLive ? live.get(i++) : archived.get(j++));
+        }
+        return merged;
+    }
+
+    private static boolean isOlder(LogListItem a, LogListItem b) {
+        int byTime = a.timeOfEvent().compareTo(b.timeOfEvent());
+        return byTime != 0 ? byTime < 0 : a.id() < b.id();
     }
 
     /**
      * Finds logs visible to the account for a specific ZonedDateTime.
      */
     public List<Log> findByTime(Account account, ZonedDateTime time) {
-        return list(
-            "timeOfEvent = ?1 AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?2 AND a = createdBy" +
-            ")",
-            time, account.getGroups()
-        );
+        return findByFilter(account, LogFilter.create().at(time));
+    }
+
+    /** Paged variant of {@link #findByTime(Account, ZonedDateTime)}. */
+    public Page<Log> findByTime(Account account, ZonedDateTime time, PageRequest page) {
+        return findByFilter(account, LogFilter.create().at(time), page);
+    }
+
+    /** Streaming variant of {@link #findByTime(Account, ZonedDateTime)}. */
+    public Stream<Log> streamByTime(Account account, ZonedDateTime time) {
+        return streamByFilter(account, LogFilter.create().at(time));
     }
 
     // --------------------------------------------
     // --- Group Queries ---
     // --------------------------------------------
 
+    private static final String IN_GROUP =
+        "exists (select 1 from LogVisibleGroup v where v.logId = l.id and v.groupId = :groupId)";
+
     /**
      * Returns all logs for a specific group, visible to the given account.
      */
     public List<Log> findByGroup(Account account, Group group) {
-        return list(
-            "EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g = ?1 AND a = createdBy" +
-            ")",
-            group
-        );
+        return list("from Log l where " + HEAD + " and " + IN_GROUP, Parameters.with("groupId", group.getId()));
+    }
+
+    /** Paged variant of {@link #findByGroup(Account, Group)}. */
+    public Page<Log> findByGroup(Account account, Group group, PageRequest page) {
+        return page(HEAD + " and " + IN_GROUP, Parameters.with("groupId", group.getId()), page);
+    }
+
+    /** Streaming variant of {@link #findByGroup(Account, Group)}. */
+    public Stream<Log> streamByGroup(Account account, Group group) {
+        return scroll("from Log l where " + HEAD + " and " + IN_GROUP + " order by l.timeOfEvent desc, l.id desc",
+            Parameters.with("groupId", group.getId()), LogFetch.LISTING);
     }
 
     /**
@@ -106,6 +609,11 @@ public class LogRepository implements PanacheRepository<Log> {
         return findAllVisibleLogs(account);
     }
 
+    /** Paged variant of {@link #findByAllGroups(Account)}. */
+    public Page<Log> findByAllGroups(Account account, PageRequest page) {
+        return findAllVisibleLogs(account, page);
+    }
+
     // --------------------------------------------
     // --- Account Queries ---
     // --------------------------------------------
@@ -114,24 +622,37 @@ public class LogRepository implements PanacheRepository<Log> {
      * Returns all logs for a specific account, visible to the requesting account.
      */
     public List<Log> findByAccount(Account account, Account targetAccount) {
-        return list(
-            "createdBy = ?1 AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?2 AND a = createdBy" +
-            ")",
-            targetAccount, account.getGroups()
-        );
+        return findByFilter(account, LogFilter.create().createdBy(targetAccount));
+    }
+
+    /** Paged variant of {@link #findByAccount(Account, Account)}. */
+    public Page<Log> findByAccount(Account account, Account targetAccount, PageRequest page) {
+        return findByFilter(account, LogFilter.create().createdBy(targetAccount), page);
+    }
+
+    /** Streaming variant of {@link #findByAccount(Account, Account)}. */
+    public Stream<Log> streamByAccount(Account account, Account targetAccount) {
+        return streamByFilter(account, LogFilter.create().createdBy(targetAccount));
     }
 
     /**
      * Returns all logs for a set of accounts, visible to the requesting account.
      */
     public List<Log> findByAccounts(Account account, Set<Account> targetAccounts) {
-        return list(
-            "createdBy in ?1 AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?2 AND a = createdBy" +
-            ")",
-            targetAccounts, account.getGroups()
-        );
+        if (targetAccounts == null || targetAccounts.isEmpty()) return List.of();
+        return findByFilter(account, LogFilter.create().createdByAny(targetAccounts));
+    }
+
+    /** Paged variant of {@link #findByAccounts(Account, Set)}. */
+    public Page<Log> findByAccounts(Account account, Set<Account> targetAccounts, PageRequest page) {
+        if (targetAccounts == null || targetAccounts.isEmpty()) return Page.empty();
+        return findByFilter(account, LogFilter.create().createdByAny(targetAccounts), page);
+    }
+
+    /** Streaming variant of {@link #findByAccounts(Account, Set)}. */
+    public Stream<Log> streamByAccounts(Account account, Set<Account> targetAccounts) {
+        if (targetAccounts == null || targetAccounts.isEmpty()) return Stream.empty();
+        return streamByFilter(account, LogFilter.create().createdByAny(targetAccounts));
     }
 
     // --------------------------------------------
@@ -142,13 +663,17 @@ public class LogRepository implements PanacheRepository<Log> {
      * Returns all logs associated with a single tag, respecting account visibility.
      */
     public List<Log> findByTag(Account account, Tag tag) {
-        return list(
-            "EXISTS (" +
-            "SELECT t FROM Log l JOIN l.tags t " +
-            "WHERE t = ?1 AND l = this AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?2 AND a = createdBy))",
-            tag, account.getGroups()
-        );
+        return findByFilter(account, LogFilter.create().taggedWith(tag));
+    }
+
+    /** Paged variant of {@link #findByTag(Account, Tag)}. */
+    public Page<Log> findByTag(Account account, Tag tag, PageRequest page) {
+        return findByFilter(account, LogFilter.create().taggedWith(tag), page);
+    }
+
+    /** Streaming variant of {@link #findByTag(Account, Tag)}. */
+    public Stream<Log> streamByTag(Account account, Tag tag) {
+        return streamByFilter(account, LogFilter.create().taggedWith(tag));
     }
 
     /**
@@ -156,13 +681,140 @@ public class LogRepository implements PanacheRepository<Log> {
      */
     public List<Log> findByTags(Account account, Set<Tag> tags) {
         if (tags == null || tags.isEmpty()) return List.of();
-        return list(
-            "EXISTS (" +
-            "SELECT t FROM Log l JOIN l.tags t " +
-            "WHERE t IN ?1 AND l = this AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?2 AND a = createdBy))",
-            tags, account.getGroups()
-        );
+        return findByFilter(account, LogFilter.create().taggedWithAny(tags));
+    }
+
+    /** Paged variant of {@link #findByTags(Account, Set)}. */
+    public Page<Log> findByTags(Account account, Set<Tag> tags, PageRequest page) {
+        if (tags == null || tags.isEmpty()) return Page.empty();
+        return findByFilter(account, LogFilter.create().taggedWithAny(tags), page);
+    }
+
+    /** Streaming variant of {@link #findByTags(Account, Set)}. */
+    public Stream<Log> streamByTags(Account account, Set<Tag> tags) {
+        if (tags == null || tags.isEmpty()) return Stream.empty();
+        return streamByFilter(account, LogFilter.create().taggedWithAny(tags));
+    }
+
+    // --------------------------------------------
+    // --- Combined Tag / Author Filters ---
+    // --------------------------------------------
+
+    private static final String HAS_ANY_TAG_ID =
+        "exists (select 1 from Log lt join lt.tags t where lt.id = l.id and t.id in :tagIds)";
+
+    /**
+     * Returns a page of logs visible to the account, tagged with any of the tags and created by any
+     * of the target accounts. An empty or {@code null} set does not restrict the result.
+     * <p>
+     * The matching ids are taken from the in-memory {@link LogBitmapIndex}, so only the rows of the
+     * page are read from the database, with visibility and the filter checked again; while the index
+     * is still loading the same page is selected with SQL. Unlike the other paged finders, pages are ordered by id (newest entry first), which
+     * is the order the index can produce without sorting.
+     * </p>
+     */
+    public Page<Log> findByTagsAndAccounts(Account account, Set<Tag> tags, Set<Account> targetAccounts,
+                                           PageRequest page) {
+        AccountSecurityContext security = securityContexts.of(account);
+        if (security.hasNoGroups()) return Page.empty();
+
+        long[] tagIds = tags == null ? new long[0] : tags.stream().mapToLong(Tag::getId).toArray();
+        long[] authorIds = targetAccounts == null ? new long[0]
+            : targetAccounts.stream().mapToLong(Account::getId).toArray();
+        LogCursor cursor = page.decodedCursor();
+        boolean backward = cursor != null && page.direction() == PageRequest.Direction.PREVIOUS;
+        Long afterId = cursor == null ? null : cursor.id();
+
+        List<Log> items = bitmapIndex.isReady()
+            ? selectFromIndex(security, tagIds, authorIds, afterId, backward, page.size() + 1)
+            : findMatchingInOrder(security, tagIds, authorIds,
+                selectIds(security, tagIds, authorIds, afterId, backward, page.size() + 1));
+
+        boolean more = items.size() > page.size();
+        if (more) items = items.subList(0, page.size());
+        items = new ArrayList<>(items);
+        if (backward) Collections.reverse(items);
+        if (items.isEmpty()) {
+            return new Page<>(items, backward ? page.cursor() : null, backward ? null : page.cursor());
+        }
+
+        String first = LogCursor.of(items.get(0).getTimeOfEvent(), items.get(0).getId()).encode();
+        Log lastItem = items.get(items.size() - 1);
+        String last = LogCursor.of(lastItem.getTimeOfEvent(), lastItem.getId()).encode();
+        String next = backward || more ? last : null;
+        String previous = backward ? (more ? first : null) : (cursor != null ? first : null);
+        return new Page<>(items, next, previous);
+    }
+
+    /**
+     * Selects the rows of a page through the bitmap index. The index is local to this node and may
+     * lag behind writes made elsewhere, so its ids are only candidates: they are loaded with the
+     * filter applied again, and more candidates are taken until the page is full or none are left.
+     */
+    private List<Log> selectFromIndex(AccountSecurityContext security, long[] tagIds, long[] authorIds,
+                                      Long afterId, boolean ascending, int limit) {
+        LogBitmapIndex.Filter filter = new LogBitmapIndex.Filter(security.groupIds(), tagIds, authorIds);
+        List<Log> selected = new ArrayList<>(limit);
+        Long from = afterId;
+        while (selected.size() < limit) {
+            int wanted = limit - selected.size();
+            List<Long> candidates = bitmapIndex.select(filter, from, ascending, wanted);
+            selected.addAll(findMatchingInOrder(security, tagIds, authorIds, candidates));
+            if (candidates.size() < wanted) break;
+            from = candidates.get(candidates.size() - 1);
+        }
+        return selected;
+    }
+
+    /** SQL equivalent of {@link LogBitmapIndex#select}, used until the index is ready. */
+    private List<Long> selectIds(AccountSecurityContext security, long[] tagIds, long[] authorIds,
+                                 Long afterId, boolean ascending, int limit) {
+        Parameters params = Parameters.with("groupIds", security.groupIdList());
+        StringBuilder query = new StringBuilder("select l.id from Log l where ")
+            .append(matching(tagIds, authorIds, params));
+        if (afterId != null) {
+            query.append(ascending ? " and l.id > :afterId" : " and l.id < :afterId");
+            params.and("afterId", afterId);
+        }
+        query.append(ascending ? " order by l.id asc" : " order by l.id desc");
+
+        TypedQuery<Long> selection = getEntityManager().createQuery(query.toString(), Long.class).setMaxResults(limit);
+        params.map().forEach(selection::setParameter);
+        return selection.getResultList();
+    }
+
+    /**
+     * Loads the logs with the given ids that still match the filter, in the order of the ids.
+     * Ids that are no longer visible heads with the tags and authors are left out.
+     */
+    private List<Log> findMatchingInOrder(AccountSecurityContext security, long[] tagIds, long[] authorIds,
+                                          List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Parameters params = Parameters.with("groupIds", security.groupIdList()).and("ids", ids);
+        Map<Long, Log> byId = new HashMap<>();
+        for (Log log : list("from Log l where l.id in :ids and " + matching(tagIds, authorIds, params), params)) {
+            byId.put(log.getId(), log);
+        }
+        List<Log> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Log log = byId.get(id);
+            if (log != null) ordered.add(log);
+        }
+        return ordered;
+    }
+
+    /** Condition on {@code l} for visible heads with any of the tags and authors; adds the parameters it uses. */
+    private static String matching(long[] tagIds, long[] authorIds, Parameters params) {
+        StringBuilder condition = new StringBuilder(HEAD).append(" and ").append(VISIBLE);
+        if (tagIds.length > 0) {
+            condition.append(" and ").append(HAS_ANY_TAG_ID);
+            params.and("tagIds", Arrays.stream(tagIds).boxed().toList());
+        }
+        if (authorIds.length > 0) {
+            condition.append(" and l.createdBy.id in :authorIds");
+            params.and("authorIds", Arrays.stream(authorIds).boxed().toList());
+        }
+        return condition.toString();
     }
 
     // --------------------------------------------
@@ -173,24 +825,34 @@ public class LogRepository implements PanacheRepository<Log> {
      * Returns logs with a title exactly matching the given string.
      */
     public List<Log> findByTitle(Account account, String title) {
-        return list(
-            "title = ?1 AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?2 AND a = createdBy" +
-            ")",
-            title, account.getGroups()
-        );
+        return findByFilter(account, LogFilter.create().titleEquals(title));
+    }
+
+    /** Paged variant of {@link #findByTitle(Account, String)}. */
+    public Page<Log> findByTitle(Account account, String title, PageRequest page) {
+        return findByFilter(account, LogFilter.create().titleEquals(title), page);
+    }
+
+    /** Streaming variant of {@link #findByTitle(Account, String)}. */
+    public Stream<Log> streamByTitle(Account account, String title) {
+        return streamByFilter(account, LogFilter.create().titleEquals(title));
     }
 
     /**
      * Returns logs with a title containing the given substring (case-insensitive).
      */
     public List<Log> findByTitleContains(Account account, String substring) {
-        return list(
-            "lower(title) like ?1 AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?2 AND a = createdBy" +
-            ")",
-            "%" + substring.toLowerCase() + "%", account.getGroups()
-        );
+        return findByFilter(account, LogFilter.create().titleContains(substring));
+    }
+
+    /** Paged variant of {@link #findByTitleContains(Account, String)}. */
+    public Page<Log> findByTitleContains(Account account, String substring, PageRequest page) {
+        return findByFilter(account, LogFilter.create().titleContains(substring), page);
+    }
+
+    /** Streaming variant of {@link #findByTitleContains(Account, String)}. */
+    public Stream<Log> streamByTitleContains(Account account, String substring) {
+        return streamByFilter(account, LogFilter.create().titleContains(substring));
     }
 
     // --------------------------------------------
@@ -201,24 +863,34 @@ public class LogRepository implements PanacheRepository<Log> {
      * Returns logs with a description exactly matching the given string.
      */
     public List<Log> findByDescription(Account account, String description) {
-        return list(
-            "description = ?1 AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?2 AND a = createdBy" +
-            ")",
-            description, account.getGroups()
-        );
+        return findByFilter(account, LogFilter.create().descriptionEquals(description));
+    }
+
+    /** Paged variant of {@link #findByDescription(Account, String)}. */
+    public Page<Log> findByDescription(Account account, String description, PageRequest page) {
+        return findByFilter(account, LogFilter.create().descriptionEquals(description), page);
+    }
+
+    /** Streaming variant of {@link #findByDescription(Account, String)}. */
+    public Stream<Log> streamByDescription(Account account, String description) {
+        return streamByFilter(account, LogFilter.create().descriptionEquals(description));
     }
 
     /**
      * Returns logs with a description containing the given substring (case-insensitive).
      */
     public List<Log> findByDescriptionContains(Account account, String substring) {
-        return list(
-            "lower(description) like ?1 AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?2 AND a = createdBy" +
-            ")",
-            "%" + substring.toLowerCase() + "%", account.getGroups()
-        );
+        return findByFilter(account, LogFilter.create().descriptionContains(substring));
+    }
+
+    /** Paged variant of {@link #findByDescriptionContains(Account, String)}. */
+    public Page<Log> findByDescriptionContains(Account account, String substring, PageRequest page) {
+        return findByFilter(account, LogFilter.create().descriptionContains(substring), page);
+    }
+
+    /** Streaming variant of {@link #findByDescriptionContains(Account, String)}. */
+    public Stream<Log> streamByDescriptionContains(Account account, String substring) {
+        return streamByFilter(account, LogFilter.create().descriptionContains(substring));
     }
 
     // --------------------------------------------
@@ -227,31 +899,114 @@ public class LogRepository implements PanacheRepository<Log> {
 
     /**
      * Returns all revisions of a given log, sorted from most recent to original.
+     * Loaded with a single query instead of initializing the lazy revisions collection.
      */
     public Set<Log> findRevisions(Log parentLog) {
-        TreeSet<Log> sortedRevisions = new TreeSet<>(Comparator.comparing(Log::getRevisedAt).reversed());
-        sortedRevisions.addAll(parentLog.getRevisions());
-        return sortedRevisions;
+        return new LinkedHashSet<>(decode(list(
+            "from Log l where l.parent = :parent order by l.revisedAt desc, l.id desc",
+            Parameters.with("parent", parentLog)
+        )));
+    }
+
+    private static Criteria chainOf(Log log) {
+        return Criteria.of("(l.id = :root or l.rootId = :root)", "root", log.getChainRootId()).withHistory();
+    }
+
+    /**
+     * Returns the whole revision chain the log belongs to, from the original to the latest revision,
+     * restricted to entries visible to the account.
+     * <p>
+     * Every revision stores the id of the chain's original ({@code rootId}), so the chain is read
+     * with one indexed query however deep it is.
+     * </p>
+     */
+    public List<Log> findRevisionChain(Account account, Log log) {
+        AccountSecurityContext security = securityContexts.of(account);
+        if (security.hasNoGroups()) return List.of();
+        Criteria chain = chainOf(log);
+        return decode(list("from Log l where " + chain.where() + " order by coalesce(l.revisedAt, l.createdAt), l.id",
+            chain.params().and("groupIds", security.groupIdList())));
+    }
+
+    /** Paged variant of {@link #findRevisionChain(Account, Log)}, oldest entry first. */
+    public Page<Log> findRevisionChain(Account account, Log log, PageRequest page) {
+        return decode(pageVisible(account, chainOf(log), page, KeysetOrder.REVISION_HISTORY, LogFetch.LISTING));
+    }
+
+    /**
+     * Resolves delta-encoded revisions while the session is open, so callers can read their text
+     * after the transaction ended. Oldest first, each decoded parent is reused by its revision.
+     */
+    private static List<Log> decode(List<Log> logs) {
+        logs.stream()
+            .filter(Log::isDeltaEncoded)
+            .sorted(Comparator.comparingInt(Log::getRevisionDepth))
+            .forEach(Log::decode);
+        return logs;
+    }
+
+    private static Page<Log> decode(Page<Log> page) {
+        decode(page.items());
+        return page;
     }
 
     // --------------------------------------------
     // --- Persistence Helpers ---
     // --------------------------------------------
 
-    /** Persists a log and immediately flushes it to the database. */
+    /**
+     * Persists a log and immediately flushes it to the database.
+     * The log becomes visible to all groups of its creator.
+     */
     public void persistAndFlush(Log log) {
         persist(log);
         flush();
+        logVisibilityRepository.grantForLog(log);
     }
 
     /**
      * Adds a revision to a parent log, setting the reviser and revision time.
+     * <p>
+     * The revision becomes the head of the chain and the previous head is cleared in the same
+     * transaction. Concurrent revisions of one chain are serialized by locking the chain's original,
+     * so a chain never ends up with two heads.
+     * </p>
+     * <p>
+     * The superseded head is then compacted to a delta against its own parent, unless its depth in
+     * the chain is a multiple of {@code opslog.revisions.snapshot-interval}. Reading an old revision
+     * therefore never walks back more than that many entries to a full snapshot.
+     * </p>
      */
     public void addRevision(Log parentLog, Log revision, Account reviser) {
+        Long root = parentLog.getChainRootId();
+        getEntityManager().find(Log.class, root, LockModeType.PESSIMISTIC_WRITE);
+        boolean supersedesHead = parentLog.isHead();
+        update("head = false where (id = :root or rootId = :root) and head = true", Parameters.with("root", root));
+
+        parentLog.setHead(false);
+
         revision.setParent(parentLog);
+        revision.setRootId(root);
+        revision.setRevisionDepth(parentLog.getRevisionDepth() + 1);
+        revision.setHead(true);
         revision.setRevisedBy(reviser);
         revision.setRevisedAt(ZonedDateTime.now());
         persistAndFlush(revision);
+        indexChanges.fire(LogIndexChange.chain(root));
+
+        if (supersedesHead && snapshotInterval > 1 && parentLog.getRevisionDepth() % snapshotInterval != 0) {
+            parentLog.compactAgainstParent();
+        }
+    }
+
+    /**
+     * Replaces the tags of a log. Tags of an existing log are changed through here rather than on
+     * the entity, so the change reaches the {@link LogBitmapIndex}.
+     */
+    public void updateTags(Log log, Set<Tag> tags) {
+        log.getTags().clear();
+        log.getTags().addAll(tags);
+        indexChanges.fire(LogIndexChange.log(log.getId()));
     }
 
     // --------------------------------------------
@@ -262,73 +1017,121 @@ public class LogRepository implements PanacheRepository<Log> {
      * Checks if the given account belongs to the ADMINISTRATOR group.
      */
     private boolean isAdmin(Account account) {
-        return account.getGroups().stream()
-            .anyMatch(g -> g.getAppGroup() == AppGroup.ADMINISTRATOR);
+        return securityContexts.of(account).admin();
     }
 
     /**
      * Deletes a single log if the account is an administrator and has access.
+     * Deleting the head of a chain makes the revision it superseded the head again.
      */
     public boolean deleteLog(Account account, Log log) {
         if (!isAdmin(account)) return false;
 
-        List<Log> visible = list(
-            "id = ?1 AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?2 AND a = createdBy" +
-            ")",
-            log.getId(), account.getGroups()
+        long visible = count(
+            "from Log l where l.id = :id and " + VISIBLE,
+            visibleTo(account).and("id", log.getId())
         );
 
-        if (visible.isEmpty()) return false;
+        if (visible == 0) return false;
+
+        // Serialized with addRevision, which locks the same original
+        Long root = log.getChainRootId();
+        getEntityManager().find(Log.class, root, LockModeType.PESSIMISTIC_WRITE);
+        Log deleted = findById(log.getId());
+        Log parent = deleted != null && deleted.isHead() ? deleted.getParent() : null;
 
         delete("id", log.getId());
+        if (parent != null) parent.promoteToHead();
+        indexChanges.fire(LogIndexChange.chain(root));
+        indexChanges.fire(LogIndexChange.log(log.getId()));
         return true;
     }
 
     /**
      * Deletes all logs for a specific account if the requesting account is an administrator.
+     * Chains whose head is deleted keep their newest remaining revision as head.
      */
     public long deleteLogsForAccount(Account account, Account targetAccount) {
         if (!isAdmin(account)) return 0;
 
-        return delete(
-            "createdBy = ?1 AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?2 AND a = createdBy" +
-            ")",
-            targetAccount, account.getGroups()
+        long deleted = deleteMatching(
+            "l.createdBy = :target and " + VISIBLE,
+            visibleTo(account).and("target", targetAccount)
         );
+        if (deleted > 0) indexChanges.fire(LogIndexChange.author(targetAccount.getId()));
+        return deleted;
     }
 
     /**
      * Deletes all logs for a specific group if the requesting account is an administrator.
+     * <p>
+     * This removes one group's logs across all time. Age based clean-up is not done through here:
+     * with partitioning enabled, {@link org.opslog.schema.LogPartitionManager} expires whole months.
+     * Chains whose head is deleted keep their newest remaining revision as head.
+     * </p>
      */
     public long deleteLogsForGroup(Account account, Group group) {
         if (!isAdmin(account)) return 0;
 
-        return delete(
-            "EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g = ?1 AND a = createdBy" +
-            ")",
-            group
+        long deleted = deleteMatching(
+            "exists (select 1 from LogVisibleGroup v where v.logId = l.id and v.groupId = :groupId)",
+            Parameters.with("groupId", group.getId())
         );
+        if (deleted > 0) indexChanges.fire(LogIndexChange.all());
+        return deleted;
     }
 
     /**
      * Deletes all logs for a set of accounts if the requesting account is an administrator.
+     * Chains whose head is deleted keep their newest remaining revision as head.
      */
     public long deleteLogsForAccounts(Account account, Set<Account> targetAccounts) {
         if (!isAdmin(account) || targetAccounts == null || targetAccounts.isEmpty()) return 0;
 
-        return delete(
-            "createdBy in ?1 AND EXISTS (" +
-            "SELECT g FROM Account a JOIN a.groups g WHERE g IN ?2 AND a = createdBy" +
-            ")",
-            targetAccounts, account.getGroups()
+        long deleted = deleteMatching(
+            "l.createdBy in :targets and " + VISIBLE,
+            visibleTo(account).and("targets", targetAccounts)
         );
+        if (deleted > 0) {
+            indexChanges.fire(new LogIndexChange(LogIndexChange.Scope.AUTHORS,
+                targetAccounts.stream().mapToLong(Account::getId).toArray()));
+        }
+        return deleted;
     }
 
-}
-
+    /**
+     * Bulk deletes the logs matching a condition on alias {@code l}. As in {@link #deleteLog}, a
+     * deleted head hands the head over to its nearest ancestor that is not deleted with it, so the
+     * chain stays listed. The originals of the affected chains are locked first, in id order, which
+     * serializes with {@link #addRevision} and keeps the set of heads stable until the delete.
+     */
+    private long deleteMatching(String condition, Parameters params) {
+        TypedQuery<Log> roots = getEntityManager().createQuery(
+                "from Log r where r.id in (select coalesce(l.rootId, l.id) from Log l where " + condition + ") " +
+                "order by r.id", Log.class)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        params.map().forEach(roots::setParameter);
+        long[] chains = roots.getResultList().stream().mapToLong(Log::getId).toArray();
 
+        TypedQuery<Long> matching = getEntityManager().createQuery("select l.id from Log l where " + condition, Long.class);
+        params.map().forEach(matching::setParameter);
+        Set<Long> deleted = new HashSet<>(matching.getResultList());
+        if (deleted.isEmpty()) return 0;
 
+        TypedQuery<Log> heads = getEntityManager().createQuery("from Log l where " + HEAD + " and " + condition, Log.class);
+        params.map().forEach(heads::setParameter);
+        List<Log> successors = new ArrayList<>();
+        for (Log head : heads.getResultList()) {
+            Log parent = head.getParent();
+            while (parent != null && deleted.contains(parent.getId())) parent = parent.getParent();
+            // Decoded now, while the ancestors its delta refers to still exist
+            if (parent != null) successors.add(parent.decode());
+        }
 
+        long count = delete("delete from Log l where " + condition, params);
+        successors.forEach(Log::promoteToHead);
+        if (chains.length > 0) indexChanges.fire(new LogIndexChange(LogIndexChange.Scope.CHAINS, chains));
+        indexChanges.fire(LogIndexChange.logs(deleted));
+        return count;
+    }
+}
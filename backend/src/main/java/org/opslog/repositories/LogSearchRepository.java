@@ -0,0 +1,126 @@
+package org.opslog.repositories;
+
+import org.opslog.entities.Account;
+import org.opslog.pagination.Page;
+import org.opslog.pagination.PageRequest;
+import org.opslog.search.LogSearchHit;
+import org.opslog.search.SearchCursor;
+import org.opslog.search.TsQueryBuilder;
+import org.opslog.security.AccountSecurityContext;
+import org.opslog.security.AccountSecurityContexts;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import org.hibernate.query.NativeQuery;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ranked full-text search over log titles and descriptions.
+ * <p>
+ * Searches the {@code log.search_vector} column, a generated {@code tsvector} of the title
+ * (weight A) and description (weight B) backed by a GIN index. PostgreSQL keeps it current on
+ * every insert and update, including revisions. Results are ranked with {@code ts_rank_cd},
+ * restricted to logs visible to the searching account, and paged with keyset cursors on
+ * {@code (rank, id)}. Highlighted snippets are only computed for the rows of the returned page.
+ * </p>
+ * See {@link TsQueryBuilder} for the supported query syntax (phrases, prefixes, exclusions).
+ */
+@ApplicationScoped
+public class LogSearchRepository {
+
+    /** Text search configuration; must match the one used by the search_vector column. */
+    public static final String TEXT_SEARCH_CONFIG = "english";
+
+    private static final String HEADLINE_TITLE = "StartSel=<mark>, StopSel=</mark>, HighlightAll=true";
+    private static final String HEADLINE_SNIPPET =
+        "StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=30, MinWords=10, FragmentDelimiter=\" ... \"";
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    AccountSecurityContexts securityContexts;
+
+    /**
+     * Searches logs visible to the account.
+     *
+     * @param text user input, see {@link TsQueryBuilder}
+     * @param request page size and optional cursor from a previous search page
+     */
+    public Page<LogSearchHit> search(Account account, String text, PageRequest request) {
+        String tsQuery = TsQueryBuilder.build(text);
+        AccountSecurityContext security = securityContexts.of(account);
+        if (tsQuery == null || security.hasNoGroups()) return Page.empty();
+
+        SearchCursor cursor = request.hasCursor() ? SearchCursor.decode(request.cursor()) : null;
+        boolean backward = cursor != null && request.direction() == PageRequest.Direction.PREVIOUS;
+        String order = backward ? "ASC" : "DESC";
+
+        String keyset = "";
+        if (cursor != null) {
+            keyset = backward
+                ? "WHERE rank > :cursorRank OR (rank = :cursorRank AND id > :cursorId) "
+                : "WHERE rank < :cursorRank OR (rank = :cursorRank AND id < :cursorId) ";
+        }
+
+        String sql =
+            "WITH q AS (SELECT to_tsquery('" + TEXT_SEARCH_CONFIG + "', :query) AS query), " +
+            "hits AS (" +
+                "SELECT l.id, ts_rank_cd(l.search_vector, q.query) AS rank FROM log l, q " +
+                "WHERE l.search_vector @@ q.query AND l.is_head " +
+                "AND EXISTS (SELECT 1 FROM log_visible_group v WHERE v.log_id = l.id AND v.group_id = ANY(:groupIds))" +
+            "), page AS (" +
+                "SELECT id, rank FROM hits " + keyset +
+                "ORDER BY rank " + order + ", id " + order + " LIMIT :limit" +
+            ") " +
+            "SELECT p.id, p.rank, l.time_of_event, " +
+            "ts_headline('" + TEXT_SEARCH_CONFIG + "', coalesce(l.title, ''), q.query, '" + HEADLINE_TITLE + "') AS title, " +
+            "ts_headline('" + TEXT_SEARCH_CONFIG + "', coalesce(l.description, ''), q.query, '" + HEADLINE_SNIPPET + "') AS snippet " +
+            "FROM page p JOIN log l ON l.id = p.id CROSS JOIN q " +
+            "ORDER BY p.rank " + order + ", p.id " + order;
+
+        @SuppressWarnings("unchecked")
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addScalar("id", Long.class)
+            .addScalar("rank", Float.class)
+            .addScalar("time_of_event", ZonedDateTime.class)
+            .addScalar("title", String.class)
+            .addScalar("snippet", String.class);
+        query.setParameter("query", tsQuery)
+            .setParameter("groupIds", security.groupIdArray())
+            .setParameter("limit", request.size() + 1);
+        if (cursor != null) {
+            query.setParameter("cursorRank", cursor.rank())
+                .setParameter("cursorId", cursor.id());
+        }
+
+        List<LogSearchHit> hits = new ArrayList<>();
+        for (Object[] row : query.getResultList()) {
+            hits.add(new LogSearchHit((Long) row[0], (ZonedDateTime) row[2], (Float) row[1],
+                (String) row[3], (String) row[4]));
+        }
+
+        boolean more = hits.size() > request.size();
+        List<LogSearchHit> items = new ArrayList<>(more ? hits.subList(0, request.size()) : hits);
+        if (backward) Collections.reverse(items);
+        if (items.isEmpty()) {
+            return new Page<>(items, backward ? request.cursor() : null, backward ? null : request.cursor());
+        }
+
+        String first = cursorOf(items.get(0));
+        String last = cursorOf(items.get(items.size() - 1));
+        String next = backward || more ? last : null;
+        String previous = backward ? (more ? first : null) : (cursor != null ? first : null);
+        return new Page<>(items, next, previous);
+    }
+
+    private static String cursorOf(LogSearchHit hit) {
+        return new SearchCursor(hit.rank(), hit.logId()).encode();
+    }
+}
@@ -0,0 +1,134 @@
+package org.opslog.repositories;
+
+import org.opslog.entities.Account;
+import org.opslog.entities.Group;
+import org.opslog.entities.Log;
+import org.opslog.entities.LogVisibleGroup;
+import org.opslog.index.LogBitmapIndex;
+import org.opslog.index.LogIndexChange;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+
+import org.hibernate.query.NativeQuery;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maintains the {@code log_visible_group} table used by {@link LogRepository} for visibility checks.
+ * <p>
+ * A log is visible to every group its creator belongs to. A revision is also visible to the groups
+ * of the creator of its chain's original, so whoever could see the original keeps seeing the chain
+ * (in listings, its head) after someone from other groups revised it. Rows have to be written:
+ * <ul>
+ *     <li>when a log is persisted (one row per group of the creator, and of the chain's creator)</li>
+ *     <li>when an account joins a group (one row per log of the account or of a chain it started)</li>
+ *     <li>and removed when an account leaves a group, unless the other author still justifies it</li>
+ * </ul>
+ * Rows of deleted logs are removed by the database through the cascading foreign key.
+ * All statements are set based so they stay a single round-trip regardless of the number of rows.
+ * Each write also notifies the {@link LogBitmapIndex}, which re-reads the affected logs after commit.
+ * </p>
+ */
+@ApplicationScoped
+public class LogVisibilityRepository implements PanacheRepositoryBase<LogVisibleGroup, LogVisibleGroup.Key> {
+
+    @Inject
+    Event<LogIndexChange> indexChanges;
+
+    /**
+     * A native statement declared to touch only {@code log_visible_group}. Without it Hibernate
+     * cannot tell which tables native SQL modifies and evicts the whole second-level cache.
+     */
+    @SuppressWarnings("unchecked")
+    private NativeQuery<?> mutation(String sql) {
+        return getEntityManager().createNativeQuery(sql)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedEntityClass(LogVisibleGroup.class);
+    }
+
+    /**
+     * Accounts a log's visibility derives from, aliased {@code authors(log_id, account_id)}: its
+     * creator and the creator of its chain's original, for the logs of alias {@code l}.
+     */
+    private static final String AUTHORS_OF_L =
+        "(SELECT l.id AS log_id, l.create_by_id AS account_id " +
+        "UNION SELECT l.id, r.create_by_id FROM log r WHERE r.id = l.root_id) AS authors";
+
+    /**
+     * Makes a freshly persisted log visible to all groups of its creator and of its chain's creator.
+     * The log must already have an id.
+     */
+    public int grantForLog(Log log) {
+        return grantForLogs(List.of(log.getId()));
+    }
+
+    /**
+     * Makes a batch of already persisted logs visible to all groups of their creators and of their
+     * chains' creators. Originals of the same batch must be written first.
+     */
+    public int grantForLogs(Collection<Long> logIds) {
+        if (logIds == null || logIds.isEmpty()) return 0;
+        indexChanges.fire(LogIndexChange.logs(logIds));
+        return mutation(
+                "INSERT INTO log_visible_group (log_id, group_id) " +
+                "SELECT authors.log_id, ag.group_id FROM log l " +
+                "CROSS JOIN LATERAL " + AUTHORS_OF_L + " " +
+                "JOIN account_groups ag ON ag.account_id = authors.account_id " +
+                "WHERE l.id = ANY(?1) " +
+                "ON CONFLICT DO NOTHING")
+            .setParameter(1, logIds.toArray(Long[]::new))
+            .executeUpdate();
+    }
+
+    /**
+     * Makes every log created by the account, and every revision of a chain it started, visible to
+     * the group the account just joined.
+     */
+    public int grantForMembership(Account account, Group group) {
+        indexChanges.fire(LogIndexChange.author(account.getId()));
+        return mutation(
+                "INSERT INTO log_visible_group (log_id, group_id) " +
+                "SELECT l.id, ?1 FROM log l WHERE l.create_by_id = ?2 " +
+                "OR l.root_id IN (SELECT r.id FROM log r WHERE r.create_by_id = ?2) " +
+                "ON CONFLICT DO NOTHING")
+            .setParameter(1, group.getId())
+            .setParameter(2, account.getId())
+            .executeUpdate();
+    }
+
+    /**
+     * Hides the logs the account's membership made visible to the group the account just left,
+     * except those the other author (creator or chain creator) still makes visible to it. The
+     * departing account is excluded explicitly, whether or not its membership row is flushed yet.
+     */
+    public int revokeForMembership(Account account, Group group) {
+        indexChanges.fire(LogIndexChange.author(account.getId()));
+        return mutation(
+                "DELETE FROM log_visible_group v USING log l LEFT JOIN log r ON r.id = l.root_id " +
+                "WHERE v.log_id = l.id AND v.group_id = ?1 " +
+                "AND (l.create_by_id = ?2 OR r.create_by_id = ?2) " +
+                "AND NOT EXISTS (SELECT 1 FROM account_groups ag WHERE ag.group_id = ?1 AND ag.account_id <> ?2 " +
+                "    AND ag.account_id IN (l.create_by_id, coalesce(r.create_by_id, l.create_by_id)))")
+            .setParameter(1, group.getId())
+            .setParameter(2, account.getId())
+            .executeUpdate();
+    }
+
+    /**
+     * Recomputes missing visibility rows for all logs.
+     * Used to backfill existing data; safe to run again.
+     */
+    public int rebuild() {
+        return mutation(
+                "INSERT INTO log_visible_group (log_id, group_id) " +
+                "SELECT authors.log_id, ag.group_id FROM log l " +
+                "CROSS JOIN LATERAL " + AUTHORS_OF_L + " " +
+                "JOIN account_groups ag ON ag.account_id = authors.account_id " +
+                "ON CONFLICT DO NOTHING")
+            .executeUpdate();
+    }
+}
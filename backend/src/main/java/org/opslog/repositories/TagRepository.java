@@ -1,17 +1,30 @@
 package org.opslog.repositories;
 
+import org.opslog.entities.Log;
 import org.opslog.entities.Tag;
+import org.opslog.search.LikePatterns;
+import org.opslog.suggest.SuggestionChange;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 
+import org.hibernate.Cache;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class TagRepository implements PanacheRepository<Tag> {
 
-    // Find a tag by its exact title
+    @Inject
+    Event<SuggestionChange> suggestionChanges;
+
+    // Find a tag by its exact title (query cache: invalidated by any write to the tag table)
     public Tag findByTitle(String title) {
-        return find("title", title).firstResult();
+        return find("title", title).withHint(HibernateHints.HINT_CACHEABLE, true).firstResult();
     }
 
     // Find all tags that contain a substring in the title (case-insensitive)
@@ -19,9 +32,36 @@ public class TagRepository implements PanacheRepository<Tag> {
         return list("lower(title) like ?1", "%" + substring.toLowerCase() + "%");
     }
 
+    // Type-ahead search: substring or fuzzy title matches, most similar first.
+    // Served by the trigram (pg_trgm) GiST index on lower(title), which handles the LIKE,
+    // the similarity filter (%) and the distance ordering (<->) in a single index scan.
+    @SuppressWarnings("unchecked")
+    public List<Tag> searchByTitle(String term, int limit) {
+        if (term == null || term.isBlank()) return List.of();
+        String normalized = term.trim().toLowerCase();
+        return getEntityManager().createNativeQuery(
+                "SELECT t.* FROM tag t " +
+                "WHERE lower(t.title) LIKE :pattern OR lower(t.title) % :term " +
+                "ORDER BY lower(t.title) <-> :term, t.id " +
+                "LIMIT :limit", Tag.class)
+            .setParameter("pattern", LikePatterns.contains(normalized))
+            .setParameter("term", normalized)
+            .setParameter("limit", limit)
+            .getResultList();
+    }
+
+    // Map of tag title to id for resolving titles in bulk imports (first id wins for duplicate titles)
+    public Map<String, Long> findIdsByTitle() {
+        Map<String, Long> ids = new HashMap<>();
+        getEntityManager().createQuery("select t.title, t.id from Tag t order by t.id", Object[].class)
+            .getResultStream()
+            .forEach(row -> ids.putIfAbsent((String) row[0], (Long) row[1]));
+        return ids;
+    }
+
     // Find all tags by color
     public List<Tag> findByColor(String color) {
-        return list("color", color);
+        return find("color", color).withHint(HibernateHints.HINT_CACHEABLE, true).list();
     }
 
     // Persist a new tag and flush immediately
@@ -31,15 +71,25 @@ public class TagRepository implements PanacheRepository<Tag> {
         return tag;
     }
 
-    // Delete a tag by its ID
+    // Delete a tag by its ID (bulk delete bypasses entity listeners, so notify the suggestion index here)
     public boolean deleteById(long id) {
-        return delete("id", id) > 0;
+        if (delete("id", id) == 0) return false;
+        evictLogTags();
+        suggestionChanges.fire(SuggestionChange.removed(SuggestionChange.Kind.TAG, id));
+        return true;
     }
 
     // Delete a tag by object reference
     public boolean deleteTag(Tag tag) {
         if (tag == null) return false;
         delete(tag);
+        evictLogTags();
         return true;
     }
+
+    // Hibernate evicts the deleted tag itself; cached Log.tags collections may still list its id
+    private void evictLogTags() {
+        getEntityManager().getEntityManagerFactory().getCache().unwrap(Cache.class)
+            .evictCollectionData(Log.TAGS_CACHE_REGION);
+    }
 }
\ No newline at end of file
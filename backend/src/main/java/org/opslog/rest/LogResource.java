@@ -0,0 +1,72 @@
+package org.opslog.rest;
+
+import org.opslog.concurrency.DatabaseBound;
+import org.opslog.dto.LogListItem;
+import org.opslog.entities.Account;
+import org.opslog.pagination.Page;
+import org.opslog.pagination.PageRequest;
+import org.opslog.repositories.AccountRepository;
+import org.opslog.repositories.LogFilter;
+import org.opslog.repositories.LogRepository;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotAuthorizedException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.SecurityContext;
+
+import java.time.DateTimeException;
+import java.time.ZonedDateTime;
+
+/**
+ * Log list endpoint of the blocking data path; same contract as
+ * {@link org.opslog.reactive.ReactiveLogResource}.
+ * <p>
+ * Runs on a virtual thread, so a request waiting on PostgreSQL parks instead of holding a worker
+ * thread, and is admitted through {@link DatabaseBound} before it takes a connection.
+ * </p>
+ */
+@Path("/logs")
+@IfBuildProperty(name = "opslog.data-path", stringValue = "blocking", enableIfMissing = true)
+public class LogResource {
+
+    @Inject
+    LogRepository logRepository;
+
+    @Inject
+    AccountRepository accountRepository;
+
+    @GET
+    @RunOnVirtualThread
+    @DatabaseBound
+    @Produces(MediaType.APPLICATION_JSON)
+    public Page<LogListItem> list(@Context SecurityContext securityContext,
+                                  @QueryParam("from") String from,
+                                  @QueryParam("to") String to,
+                                  @QueryParam("cursor") String cursor,
+                                  @QueryParam("direction") PageRequest.Direction direction,
+                                  @QueryParam("size") @DefaultValue("50") int size) {
+        Account account = securityContext.getUserPrincipal() == null ? null
+            : accountRepository.findByUsername(securityContext.getUserPrincipal().getName());
+        if (account == null) throw new NotAuthorizedException("Bearer");
+        if ((from == null) != (to == null)) throw new BadRequestException("from and to go together");
+        LogFilter filter = LogFilter.create();
+        PageRequest page;
+        try {
+            if (from != null) filter.between(ZonedDateTime.parse(from), ZonedDateTime.parse(to));
+            page = new PageRequest(cursor, size, direction);
+            page.decodedCursor();
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        return logRepository.listByFilter(account, filter, page);
+    }
+}
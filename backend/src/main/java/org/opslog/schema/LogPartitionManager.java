@@ -0,0 +1,367 @@
+package org.opslog.schema;
+
+import org.jboss.logging.Logger;
+import org.opslog.entities.Log;
+import org.opslog.index.LogIndexChange;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Cache;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the {@code log} table range-partitioned by month of {@code time_of_event}.
+ * <p>
+ * Opt-in with {@code opslog.partitioning.enabled}. On the first start with it enabled, the plain
+ * table is converted: rows are copied into a partitioned table with one partition per month
+ * ({@code log_p2026_10}, ...) plus a default partition for stray dates, and indexes are rebuilt.
+ * Afterwards the manager periodically creates the partitions of the coming months and expires old
+ * ones, detaching or dropping whole months instead of deleting rows.
+ * </p>
+ * <p>
+ * Time conditions ({@link org.opslog.repositories.LogFilter#between}, the keyset cursor of newest
+ * first pages, ...) then let PostgreSQL skip every partition outside the requested range.
+ * </p>
+ * <p>
+ * PostgreSQL requires the primary key of a partitioned table to contain the partition key, so it
+ * becomes {@code (id, time_of_event)}, and foreign keys can no longer reference {@code log(id)}.
+ * The cascading deletes they provided for {@code log_visible_group} and {@code log_tags} are
+ * replaced by a statement trigger on {@code log}.
+ * </p>
+ */
+@ApplicationScoped
+public class LogPartitionManager {
+
+    private static final Logger LOG = Logger.getLogger(LogPartitionManager.class);
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'log_p'uuuu_MM");
+
+    /** Partition receiving rows of months that have no partition of their own. */
+    static final String DEFAULT_PARTITION = "log_default";
+
+    /** What happens to partitions past retention. */
+    public enum RetentionMode {
+        /** Detached into a standalone table (with a copy of its tag rows), e.g. for archiving. */
+        DETACH,
+        /** Dropped. */
+        DROP
+    }
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    Event<LogIndexChange> indexChanges;
+
+    @ConfigProperty(name = "opslog.partitioning.enabled", defaultValue = "false")
+    boolean enabled;
+
+    /** Partitions are created this many months ahead of the current one. */
+    @ConfigProperty(name = "opslog.partitioning.months-ahead", defaultValue = "3")
+    int monthsAhead;
+
+    /** Number of past months kept besides the current one; 0 keeps everything. */
+    @ConfigProperty(name = "opslog.partitioning.retention-months", defaultValue = "0")
+    int retentionMonths;
+
+    @ConfigProperty(name = "opslog.partitioning.retention-mode", defaultValue = "DETACH")
+    RetentionMode retentionMode;
+
+    /** Transaction timeout of the one-time conversion, which copies the whole table. */
+    @ConfigProperty(name = "opslog.partitioning.conversion-timeout", defaultValue = "1h")
+    Duration conversionTimeout;
+
+    @ConfigProperty(name = "quarkus.hibernate-orm.database.generation", defaultValue = "none")
+    String schemaGeneration;
+
+    // After the schema steps (default priority), before the bitmap index starts loading (LIBRARY_AFTER)
+    void onStart(@Observes @Priority(Interceptor.Priority.LIBRARY_AFTER - 1) StartupEvent event) {
+        if (!enabled) return;
+        // Hibernate's schema update would try to add foreign keys referencing log(id) on every start
+        if (!schemaGeneration.equals("none") && !schemaGeneration.equals("validate")) {
+            throw new IllegalStateException("opslog.partitioning.enabled requires quarkus.hibernate-orm.database.generation " +
+                "none or validate, not " + schemaGeneration + "; create the schema with partitioning disabled first");
+        }
+        QuarkusTransaction.requiringNew().timeout((int) conversionTimeout.toSeconds()).run(() -> {
+            lock();
+            if (!isPartitioned()) convert();
+        });
+        maintain();
+    }
+
+    @Scheduled(every = "${opslog.partitioning.check-interval}", delayed = "${opslog.partitioning.check-interval}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledMaintenance() {
+        if (enabled) maintain();
+    }
+
+    /** Creates the partitions of the current and coming months and applies retention. */
+    public void maintain() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            lock();
+            if (!isPartitioned()) return;
+            YearMonth current = YearMonth.now(ZoneOffset.UTC);
+            ensurePartitions(current, current.plusMonths(monthsAhead));
+            applyRetention(current);
+        });
+    }
+
+    /**
+     * Creates the missing monthly partitions for {@code [from, to]}, e.g. before importing
+     * historical logs. Does nothing while the table is not partitioned.
+     */
+    @Transactional
+    public void ensurePartitions(YearMonth from, YearMonth to) {
+        if (!isPartitioned()) return;
+        Set<String> existing = partitionNames();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            if (!existing.contains(PARTITION_NAME.format(month))) createPartition(month);
+        }
+    }
+
+    /** Serializes partition management across nodes, together with the schema steps. */
+    private void lock() {
+        entityManager.createNativeQuery("SELECT count(*) FROM (SELECT pg_advisory_xact_lock(?1)) AS l")
+            .setParameter(1, SchemaMigrations.LOCK_KEY)
+            .getSingleResult();
+    }
+
+    private boolean isPartitioned() {
+        return !rows("SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('log')").isEmpty();
+    }
+
+    /** Replaces the plain {@code log} table by a partitioned one holding the same rows. */
+    private void convert() {
+        long started = System.nanoTime();
+        LOG.info("Converting the log table to monthly partitions");
+        execute("LOCK TABLE log IN ACCESS EXCLUSIVE MODE");
+        // The partition key must not be null
+        execute("UPDATE log SET time_of_event = coalesce(created_at, now()) WHERE time_of_event IS NULL");
+        execute("ALTER TABLE log RENAME TO log_unpartitioned");
+        execute("CREATE TABLE log (LIKE log_unpartitioned INCLUDING DEFAULTS INCLUDING GENERATED) " +
+                "PARTITION BY RANGE (time_of_event)");
+        execute("ALTER TABLE log ALTER COLUMN time_of_event SET NOT NULL");
+        execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF log DEFAULT");
+
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        String oldest = (String) entityManager.createNativeQuery(
+                "SELECT to_char(min(time_of_event) AT TIME ZONE 'UTC', 'YYYY-MM') FROM log_unpartitioned")
+            .getSingleResult();
+        YearMonth first = oldest == null ? current : YearMonth.parse(oldest);
+        for (YearMonth month = first.isBefore(current) ? first : current;
+             !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            createPartition(month);
+        }
+
+        String columns = insertableColumns("log_unpartitioned");
+        execute("INSERT INTO log (" + columns + ") SELECT " + columns + " FROM log_unpartitioned");
+        // Also drops the foreign keys of log_visible_group, log_tags and log.parent_id referencing it
+        execute("DROP TABLE log_unpartitioned CASCADE");
+
+        // Indexes are built once after the copy; names and definitions as in SchemaMigrations
+        execute("ALTER TABLE log ADD PRIMARY KEY (id, time_of_event)");
+        execute("ALTER TABLE log ADD FOREIGN KEY (create_by_id) REFERENCES account (id)");
+        execute("ALTER TABLE log ADD FOREIGN KEY (revised_by_id) REFERENCES account (id)");
+        execute("CREATE INDEX idx_log_id ON log (id)");
+        execute("CREATE INDEX idx_log_time_of_event_id ON log (time_of_event DESC, id DESC)");
+        execute("CREATE INDEX idx_log_head_time_of_event_id ON log (time_of_event DESC, id DESC) WHERE is_head");
+        execute("CREATE INDEX idx_log_root_id ON log (root_id) WHERE root_id IS NOT NULL");
+        execute("CREATE INDEX idx_log_search_vector ON log USING gin (search_vector)");
+
+        execute("CREATE OR REPLACE FUNCTION log_delete_dependents() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+                "BEGIN " +
+                "DELETE FROM log_visible_group v USING deleted d WHERE v.log_id = d.id; " +
+                "DELETE FROM log_tags t USING deleted d WHERE t.log_id = d.id; " +
+                "RETURN NULL; " +
+                "END $$");
+        execute("CREATE TRIGGER log_delete_dependents AFTER DELETE ON log " +
+                "REFERENCING OLD TABLE AS deleted FOR EACH STATEMENT EXECUTE FUNCTION log_delete_dependents()");
+        execute(SchemaMigrations.LOG_NOTIFY_TRIGGER);
+
+        LOG.infof("Log table partitioned in %d ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = PARTITION_NAME.format(month);
+        String from = "'" + month.atDay(1) + " 00:00:00+00'";
+        String to = "'" + month.plusMonths(1).atDay(1) + " 00:00:00+00'";
+        String bounds = "FOR VALUES FROM (" + from + ") TO (" + to + ")";
+        String range = "time_of_event >= " + from + " AND time_of_event < " + to;
+
+        if (rows("SELECT 1 FROM " + DEFAULT_PARTITION + " WHERE " + range + " LIMIT 1").isEmpty()) {
+            execute("CREATE TABLE " + name + " PARTITION OF log " + bounds);
+            return;
+        }
+        // PostgreSQL refuses a partition whose rows sit in the default partition; move them over.
+        // The delete trigger is on log, so removing them from the detached default keeps their dependents.
+        execute("ALTER TABLE log DETACH PARTITION " + DEFAULT_PARTITION);
+        execute("CREATE TABLE " + name + " PARTITION OF log " + bounds);
+        String columns = insertableColumns(DEFAULT_PARTITION);
+        execute("INSERT INTO log (" + columns + ") SELECT " + columns + " FROM " + DEFAULT_PARTITION + " WHERE " + range);
+        execute("DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range);
+        execute("ALTER TABLE log ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+        LOG.infof("Created partition %s and moved its rows out of %s", name, DEFAULT_PARTITION);
+    }
+
+    /** Expires the monthly partitions older than the retention period. */
+    private void applyRetention(YearMonth current) {
+        if (retentionMonths <= 0) return;
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        boolean expired = false;
+        for (String partition : partitionNames()) {
+            YearMonth month = monthOf(partition);
+            if (month != null && month.isBefore(oldestKept)) expired |= expire(partition);
+        }
+        if (expired) {
+            indexChanges.fire(LogIndexChange.all());
+            entityManager.getEntityManagerFactory().getCache().unwrap(Cache.class)
+                .evictCollectionData(Log.TAGS_CACHE_REGION);
+        }
+    }
+
+    private boolean expire(String partition) {
+        String oid = "to_regclass('" + partition + "')";
+        String elsewhere = "c.parent_id = p.id AND c.tableoid <> " + oid;
+        // A delta-encoded revision cannot be read without its parent
+        if (!rows("SELECT 1 FROM log c JOIN " + partition + " p ON " + elsewhere + " AND c.delta_encoded LIMIT 1").isEmpty()) {
+            LOG.warnf("Partition %s is past retention but still holds parents of delta-encoded revisions; kept", partition);
+            return false;
+        }
+        if (!repairChains(partition, oid)) {
+            LOG.warnf("Partition %s is past retention but holds heads of chains whose newest remaining revision is delta-encoded; kept",
+                partition);
+            return false;
+        }
+        if (retentionMode == RetentionMode.DETACH) {
+            execute("CREATE TABLE " + partition + "_tags AS " +
+                    "SELECT t.* FROM log_tags t JOIN " + partition + " p ON t.log_id = p.id");
+        }
+        // Detaching or dropping a partition does not fire the delete trigger
+        execute("DELETE FROM log_visible_group v USING " + partition + " p WHERE v.log_id = p.id");
+        execute("DELETE FROM log_tags t USING " + partition + " p WHERE t.log_id = p.id");
+        execute("ALTER TABLE log DETACH PARTITION " + partition);
+        if (retentionMode == RetentionMode.DROP) execute("DROP TABLE " + partition);
+        LOG.infof("Partition %s is past retention: %s", partition,
+            retentionMode == RetentionMode.DROP ? "dropped" : "detached");
+        return true;
+    }
+
+    /**
+     * Keeps the revision chains that also have rows in other months consistent once the partition
+     * is gone. A chain can span months, since revisions are partitioned by their own time of event.
+     * <ul>
+     *     <li>If the head leaves, the newest remaining revision becomes the head. When that one is
+     *     delta-encoded nothing is changed and {@code false} is returned, so the partition is kept.</li>
+     *     <li>Revisions whose parent leaves are linked to their nearest remaining ancestor.</li>
+     *     <li>If the original leaves, the oldest remaining revision becomes the chain's original, and
+     *     the chain is also made visible to the groups of its creator. Rows visible through the old
+     *     original's creator stay visible.</li>
+     *     <li>Revision depths are recomputed along the remaining links.</li>
+     * </ul>
+     */
+    private boolean repairChains(String partition, String oid) {
+        execute("CREATE TEMPORARY TABLE expiring_chains ON COMMIT DROP AS " +
+                "SELECT DISTINCT coalesce(p.root_id, p.id) AS chain, NULL::bigint AS new_head, NULL::bigint AS new_root " +
+                "FROM " + partition + " p WHERE EXISTS (SELECT 1 FROM log s " +
+                "    WHERE coalesce(s.root_id, s.id) = coalesce(p.root_id, p.id) AND s.tableoid <> " + oid + ")");
+        execute("UPDATE expiring_chains e SET new_head = (SELECT s.id FROM log s " +
+                "    WHERE coalesce(s.root_id, s.id) = e.chain AND s.tableoid <> " + oid + " " +
+                "    ORDER BY s.revision_depth DESC, s.id DESC LIMIT 1) " +
+                "WHERE EXISTS (SELECT 1 FROM " + partition + " h WHERE coalesce(h.root_id, h.id) = e.chain AND h.is_head)");
+        if (!rows("SELECT 1 FROM expiring_chains e JOIN log s ON s.id = e.new_head WHERE s.delta_encoded LIMIT 1").isEmpty()) {
+            execute("DROP TABLE expiring_chains");
+            return false;
+        }
+        execute("UPDATE log s SET is_head = true FROM expiring_chains e WHERE s.id = e.new_head");
+
+        execute("WITH RECURSIVE up (id, ancestor) AS (" +
+                "    SELECT c.id, p.parent_id FROM log c JOIN " + partition + " p " +
+                "        ON c.parent_id = p.id AND c.tableoid <> " + oid + " " +
+                "    UNION ALL " +
+                "    SELECT up.id, a.parent_id FROM up JOIN " + partition + " a ON a.id = up.ancestor) " +
+                "UPDATE log c SET parent_id = up.ancestor FROM up WHERE c.id = up.id " +
+                "AND (up.ancestor IS NULL OR NOT EXISTS (SELECT 1 FROM " + partition + " a WHERE a.id = up.ancestor))");
+
+        execute("UPDATE expiring_chains e SET new_root = (SELECT s.id FROM log s " +
+                "    WHERE s.root_id = e.chain AND s.tableoid <> " + oid + " " +
+                "    ORDER BY s.revision_depth, s.id LIMIT 1) " +
+                "WHERE EXISTS (SELECT 1 FROM " + partition + " r WHERE r.id = e.chain)");
+        // Branches that lost all their ancestors hang off the new original
+        execute("UPDATE log s SET parent_id = e.new_root FROM expiring_chains e " +
+                "WHERE s.root_id = e.chain AND s.parent_id IS NULL AND s.id <> e.new_root AND s.tableoid <> " + oid);
+        execute("UPDATE log s SET root_id = nullif(e.new_root, s.id) FROM expiring_chains e " +
+                "WHERE s.root_id = e.chain AND e.new_root IS NOT NULL AND s.tableoid <> " + oid);
+        execute("INSERT INTO log_visible_group (log_id, group_id) " +
+                "SELECT s.id, ag.group_id FROM expiring_chains e " +
+                "JOIN log r ON r.id = e.new_root " +
+                "JOIN log s ON s.root_id = e.new_root " +
+                "JOIN account_groups ag ON ag.account_id = r.create_by_id " +
+                "ON CONFLICT DO NOTHING");
+
+        execute("WITH RECURSIVE chain (id, depth) AS (" +
+                "    SELECT coalesce(e.new_root, e.chain), 0 FROM expiring_chains e " +
+                "    UNION ALL " +
+                "    SELECT c.id, chain.depth + 1 FROM log c JOIN chain ON c.parent_id = chain.id " +
+                "        AND c.tableoid <> " + oid + ") " +
+                "UPDATE log s SET revision_depth = chain.depth FROM chain " +
+                "WHERE s.id = chain.id AND s.revision_depth <> chain.depth");
+        // Several partitions can expire in one transaction
+        execute("DROP TABLE expiring_chains");
+        return true;
+    }
+
+    private Set<String> partitionNames() {
+        Set<String> names = new HashSet<>();
+        for (Object name : rows("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                                "WHERE i.inhparent = to_regclass('log')")) {
+            names.add((String) name);
+        }
+        return names;
+    }
+
+    /** The month of a monthly partition, {@code null} for the default partition. */
+    private static YearMonth monthOf(String partition) {
+        try {
+            return YearMonth.parse(partition, PARTITION_NAME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /** Comma separated columns of the table, leaving out generated ones which cannot be inserted. */
+    private String insertableColumns(String table) {
+        return (String) entityManager.createNativeQuery(
+                "SELECT string_agg(quote_ident(column_name), ', ' ORDER BY ordinal_position) " +
+                "FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = ?1 AND is_generated = 'NEVER'")
+            .setParameter(1, table)
+            .getSingleResult();
+    }
+
+    private List<?> rows(String sql) {
+        return entityManager.createNativeQuery(sql).getResultList();
+    }
+
+    private void execute(String sql) {
+        entityManager.createNativeQuery(sql).executeUpdate();
+    }
+}
@@ -0,0 +1,221 @@
+package org.opslog.schema;
+
+import org.jboss.logging.Logger;
+import org.opslog.repositories.LogVisibilityRepository;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import java.util.List;
+
+/**
+ * Runs the database steps Hibernate's schema update cannot express
+ * (data backfills, PostgreSQL specific indexes, ...).
+ * <p>
+ * Hibernate creates tables and columns before the application starts; afterwards each step below
+ * is executed once and recorded in {@code opslog_schema_step}. Steps are applied in order under a
+ * transaction-scoped advisory lock so several nodes starting at once do not race each other.
+ * New steps are only ever appended to {@link #steps()}.
+ * </p>
+ */
+@ApplicationScoped
+public class SchemaMigrations {
+
+    private static final Logger LOG = Logger.getLogger(SchemaMigrations.class);
+
+    /** Arbitrary key for pg_advisory_xact_lock, shared by all nodes. */
+    static final long LOCK_KEY = 0x6f70736c6f67L;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    LogVisibilityRepository logVisibilityRepository;
+
+    /** Channel of the log insert notifications. */
+    public static final String LOG_NOTIFY_CHANNEL = "opslog_log";
+
+    /** Statements inserting more logs than this notify a single RESYNC. */
+    static final int LOG_NOTIFY_MAX_ROWS = 1000;
+
+    /** Also re-created by {@link LogPartitionManager}, since a new table does not inherit triggers. */
+    static final String LOG_NOTIFY_TRIGGER = "CREATE TRIGGER log_notify_insert AFTER INSERT ON log " +
+        "REFERENCING NEW TABLE AS added FOR EACH STATEMENT EXECUTE FUNCTION log_notify_insert()";
+
+    /** Channel of the group membership notifications: an account id, or {@code *} for every account. */
+    public static final String MEMBERSHIP_NOTIFY_CHANNEL = "opslog_membership";
+
+    /** A named, run-once schema step. */
+    record Step(String id, Runnable action) {}
+
+    List<Step> steps() {
+        return List.of(
+            new Step("001-backfill-log-visible-group", logVisibilityRepository::rebuild),
+            new Step("002-log-keyset-index", () -> execute(
+                "CREATE INDEX IF NOT EXISTS idx_log_time_of_event_id ON log (time_of_event DESC, id DESC)")),
+            new Step("003-log-search-vector", () -> {
+                execute("ALTER TABLE log ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (" +
+                        "setweight(to_tsvector('english', coalesce(title, '')), 'A') || " +
+                        "setweight(to_tsvector('english', coalesce(description, '')), 'B')) STORED");
+                execute("CREATE INDEX IF NOT EXISTS idx_log_search_vector ON log USING gin (search_vector)");
+            }),
+            new Step("004-trigram-indexes", () -> {
+                execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+                execute("CREATE INDEX IF NOT EXISTS idx_tag_title_trgm ON tag USING gist (lower(title) gist_trgm_ops)");
+                execute("CREATE INDEX IF NOT EXISTS idx_account_username_trgm ON account USING gist (lower(username) gist_trgm_ops)");
+                execute("CREATE INDEX IF NOT EXISTS idx_account_email_trgm ON account USING gist (lower(email) gist_trgm_ops)");
+                execute("CREATE INDEX IF NOT EXISTS idx_account_full_name_trgm ON account USING gist (" +
+                        "lower(coalesce(first_name, '') || ' ' || coalesce(last_name, '')) gist_trgm_ops)");
+            }),
+            new Step("005-log-id-sequence", () -> {
+                // Ids now come from the pooled log_seq; move it past ids issued by the old identity column
+                execute("ALTER TABLE log ALTER COLUMN id DROP IDENTITY IF EXISTS");
+                select("SELECT setval('log_seq', (SELECT coalesce(max(id), 0) FROM log) + 50)");
+            }),
+            new Step("006-log-revision-root", () -> {
+                execute("WITH RECURSIVE chain AS (" +
+                        "SELECT id, id AS root FROM log WHERE parent_id IS NULL " +
+                        "UNION ALL " +
+                        "SELECT l.id, c.root FROM log l JOIN chain c ON l.parent_id = c.id) " +
+                        "UPDATE log SET root_id = chain.root FROM chain " +
+                        "WHERE log.id = chain.id AND log.parent_id IS NOT NULL AND log.root_id IS NULL");
+                execute("CREATE INDEX IF NOT EXISTS idx_log_root_id ON log (root_id) WHERE root_id IS NOT NULL");
+            }),
+            new Step("007-log-head", () -> {
+                // Rows written outside Hibernate (COPY imports) rely on the column default
+                execute("ALTER TABLE log ALTER COLUMN is_head SET DEFAULT true");
+                execute("UPDATE log SET is_head = (log.id = h.head_id) FROM (" +
+                        "SELECT DISTINCT ON (coalesce(root_id, id)) coalesce(root_id, id) AS chain, id AS head_id " +
+                        "FROM log ORDER BY coalesce(root_id, id), coalesce(revised_at, created_at) DESC, id DESC) h " +
+                        "WHERE coalesce(log.root_id, log.id) = h.chain");
+                execute("CREATE INDEX IF NOT EXISTS idx_log_head_time_of_event_id " +
+                        "ON log (time_of_event DESC, id DESC) WHERE is_head");
+            }),
+            new Step("008-log-revision-depth", () -> {
+                // Existing revisions stay full copies; only revisions made from now on are compacted
+                execute("ALTER TABLE log ALTER COLUMN revision_depth SET DEFAULT 0");
+                execute("ALTER TABLE log ALTER COLUMN delta_encoded SET DEFAULT false");
+                execute("WITH RECURSIVE chain AS (" +
+                        "SELECT id, 0 AS depth FROM log WHERE parent_id IS NULL " +
+                        "UNION ALL " +
+                        "SELECT l.id, c.depth + 1 FROM log l JOIN chain c ON l.parent_id = c.id) " +
+                        "UPDATE log SET revision_depth = chain.depth FROM chain " +
+                        "WHERE log.id = chain.id AND chain.depth > 0");
+            }),
+            new Step("009-log-notify", () -> {
+                // Live tail (LogTailListener): one notification per inserted log, carrying the groups it
+                // is visible to. Bulk inserts (imports) send a single RESYNC instead of flooding the channel.
+                execute("CREATE OR REPLACE FUNCTION log_notify_insert() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+                        "BEGIN " +
+                        "IF (SELECT count(*) FROM added) > " + LOG_NOTIFY_MAX_ROWS + " THEN " +
+                        "PERFORM pg_notify('" + LOG_NOTIFY_CHANNEL + "', '{\"kind\":\"RESYNC\"}'); " +
+                        "RETURN NULL; " +
+                        "END IF; " +
+                        "PERFORM pg_notify('" + LOG_NOTIFY_CHANNEL + "', CAST(json_build_object(" +
+                        "'kind', CASE WHEN l.root_id IS NULL THEN 'CREATED' ELSE 'REVISED' END, " +
+                        "'id', l.id, " +
+                        "'root', coalesce(l.root_id, l.id), " +
+                        "'time', CAST(floor(extract(epoch FROM l.time_of_event) * 1000) AS bigint), " +
+                        "'title', left(l.title, 200), " +
+                        "'author', a.username, " +
+                        "'groups', coalesce((SELECT json_agg(ag.group_id) FROM account_groups ag " +
+                        "WHERE ag.account_id = l.create_by_id), json_build_array())) AS text)) " +
+                        "FROM added l JOIN account a ON a.id = l.create_by_id; " +
+                        "RETURN NULL; " +
+                        "END $$");
+                execute(LOG_NOTIFY_TRIGGER);
+            }),
+            // Restart positions of CopyLogImporter, advanced in the transaction of each batch
+            new Step("010-import-checkpoint", () -> execute(
+                "CREATE TABLE IF NOT EXISTS import_checkpoint (" +
+                "input varchar(1024) PRIMARY KEY, records bigint NOT NULL, updated_at timestamptz NOT NULL DEFAULT now())")),
+            new Step("011-membership-notify", () -> {
+                // Cross-node invalidation of AccountSecurityContexts (MembershipListener), whichever way
+                // memberships change. PostgreSQL folds identical notifications of one transaction.
+                execute("CREATE OR REPLACE FUNCTION account_groups_notify() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+                        "BEGIN " +
+                        "IF TG_OP <> 'INSERT' THEN " +
+                        "PERFORM pg_notify('" + MEMBERSHIP_NOTIFY_CHANNEL + "', CAST(OLD.account_id AS text)); " +
+                        "END IF; " +
+                        "IF TG_OP <> 'DELETE' THEN " +
+                        "PERFORM pg_notify('" + MEMBERSHIP_NOTIFY_CHANNEL + "', CAST(NEW.account_id AS text)); " +
+                        "END IF; " +
+                        "RETURN NULL; " +
+                        "END $$");
+                execute("CREATE TRIGGER account_groups_notify AFTER INSERT OR UPDATE OR DELETE ON account_groups " +
+                        "FOR EACH ROW EXECUTE FUNCTION account_groups_notify()");
+                // Turning a group into (or out of) the ADMINISTRATOR group changes the admin flag of its members
+                execute("CREATE OR REPLACE FUNCTION group_app_group_notify() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+                        "BEGIN " +
+                        "PERFORM pg_notify('" + MEMBERSHIP_NOTIFY_CHANNEL + "', '*'); " +
+                        "RETURN NULL; " +
+                        "END $$");
+                execute("CREATE TRIGGER group_app_group_notify AFTER UPDATE OF app_group ON \"group\" " +
+                        "FOR EACH STATEMENT EXECUTE FUNCTION group_app_group_notify()");
+            }),
+            new Step("012-chain-visibility", () -> {
+                // Revisions are also visible to the groups of their chain's creator (LogVisibilityRepository)
+                logVisibilityRepository.rebuild();
+                execute("CREATE OR REPLACE FUNCTION log_notify_insert() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+                        "BEGIN " +
+                        "IF (SELECT count(*) FROM added) > " + LOG_NOTIFY_MAX_ROWS + " THEN " +
+                        "PERFORM pg_notify('" + LOG_NOTIFY_CHANNEL + "', '{\"kind\":\"RESYNC\"}'); " +
+                        "RETURN NULL; " +
+                        "END IF; " +
+                        "PERFORM pg_notify('" + LOG_NOTIFY_CHANNEL + "', CAST(json_build_object(" +
+                        "'kind', CASE WHEN l.root_id IS NULL THEN 'CREATED' ELSE 'REVISED' END, " +
+                        "'id', l.id, " +
+                        "'root', coalesce(l.root_id, l.id), " +
+                        "'time', CAST(floor(extract(epoch FROM l.time_of_event) * 1000) AS bigint), " +
+                        "'title', left(l.title, 200), " +
+                        "'author', a.username, " +
+                        "'groups', coalesce((SELECT json_agg(DISTINCT ag.group_id) FROM account_groups ag " +
+                        "WHERE ag.account_id = l.create_by_id " +
+                        "OR ag.account_id = (SELECT r.create_by_id FROM log r WHERE r.id = l.root_id)), " +
+                        "json_build_array())) AS text)) " +
+                        "FROM added l JOIN account a ON a.id = l.create_by_id; " +
+                        "RETURN NULL; " +
+                        "END $$");
+            })
+        );
+    }
+
+    @Transactional
+    void onStart(@Observes StartupEvent event) {
+        execute("CREATE TABLE IF NOT EXISTS opslog_schema_step (" +
+                "id varchar(255) PRIMARY KEY, applied_at timestamptz NOT NULL DEFAULT now())");
+        entityManager.createNativeQuery("SELECT count(*) FROM (SELECT pg_advisory_xact_lock(?1)) AS l")
+            .setParameter(1, LOCK_KEY)
+            .getSingleResult();
+
+        for (Step step : steps()) {
+            if (isApplied(step.id())) continue;
+            LOG.infof("Applying schema step %s", step.id());
+            step.action().run();
+            entityManager.createNativeQuery("INSERT INTO opslog_schema_step (id) VALUES (?1)")
+                .setParameter(1, step.id())
+                .executeUpdate();
+        }
+    }
+
+    private boolean isApplied(String id) {
+        return !entityManager.createNativeQuery("SELECT 1 FROM opslog_schema_step WHERE id = ?1")
+            .setParameter(1, id)
+            .getResultList()
+            .isEmpty();
+    }
+
+    /** Executes a single DDL/DML statement; used by steps that are plain SQL. */
+    void execute(String sql) {
+        entityManager.createNativeQuery(sql).executeUpdate();
+    }
+
+    /** Runs a statement that returns a result, such as a function call; the result is ignored. */
+    void select(String sql) {
+        entityManager.createNativeQuery(sql).getResultList();
+    }
+}
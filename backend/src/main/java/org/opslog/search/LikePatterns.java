@@ -0,0 +1,25 @@
+package org.opslog.search;
+
+/**
+ * Builds SQL {@code LIKE} patterns from user input.
+ * Wildcards typed by the user are escaped with {@code \}, PostgreSQL's default LIKE escape character.
+ */
+public final class LikePatterns {
+
+    private LikePatterns() {}
+
+    /** Escapes {@code %}, {@code _} and {@code \} in the input. */
+    public static String escape(String input) {
+        return input.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /** Lower-case pattern matching values containing the input. */
+    public static String contains(String input) {
+        return "%" + escape(input.toLowerCase()) + "%";
+    }
+
+    /** Lower-case pattern matching values starting with the input. */
+    public static String startsWith(String input) {
+        return escape(input.toLowerCase()) + "%";
+    }
+}
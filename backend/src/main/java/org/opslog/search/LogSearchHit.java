@@ -0,0 +1,13 @@
+package org.opslog.search;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A single full-text search result.
+ * <p>
+ * {@code title} and {@code snippet} are highlighted with {@code <mark>}/{@code </mark>} around
+ * matched words. The surrounding text is the raw log content and must be escaped by the client
+ * before rendering it as HTML.
+ * </p>
+ */
+public record LogSearchHit(long logId, ZonedDateTime timeOfEvent, float rank, String title, String snippet) {}
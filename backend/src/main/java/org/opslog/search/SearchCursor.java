@@ -0,0 +1,32 @@
+package org.opslog.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position inside a ranked search result, ordered on {@code (rank desc, id desc)}.
+ * The rank is kept as its exact float bits so the keyset predicate matches the value PostgreSQL computed.
+ */
+public record SearchCursor(float rank, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public String encode() {
+        String raw = Float.floatToIntBits(rank) + ":" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static SearchCursor decode(String token) {
+        try {
+            String[] parts = new String(DECODER.decode(token), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != 2) throw new IllegalArgumentException("Malformed cursor: " + token);
+            return new SearchCursor(Float.intBitsToFloat(Integer.parseInt(parts[0])), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.opslog.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a user search string into PostgreSQL {@code to_tsquery} syntax.
+ * <p>
+ * Supported input:
+ * <ul>
+ *     <li>{@code pump failure} - all words must match</li>
+ *     <li>{@code "pump failure"} - phrase, words must be adjacent and in order</li>
+ *     <li>{@code pum*} - prefix match</li>
+ *     <li>{@code -test} - exclude logs containing the word</li>
+ * </ul>
+ * Everything that is not a letter or digit separates words, so user input can never inject
+ * tsquery operators. Stemming and stop words are applied afterwards by {@code to_tsquery}.
+ * </p>
+ */
+public final class TsQueryBuilder {
+
+    private TsQueryBuilder() {}
+
+    /**
+     * Builds the tsquery text for the given input.
+     *
+     * @return the query, or {@code null} if the input contains no searchable words
+     */
+    public static String build(String input) {
+        if (input == null) return null;
+
+        List<String> clauses = new ArrayList<>();
+        int i = 0;
+        while (i < input.length()) {
+            char c = input.charAt(i);
+            if (c == '"') {
+                int end = input.indexOf('"', i + 1);
+                if (end < 0) end = input.length();
+                String phrase = phrase(words(input.substring(i + 1, end)));
+                if (phrase != null) clauses.add(phrase);
+                i = end + 1;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else {
+                int end = i;
+                while (end < input.length() && !Character.isWhitespace(input.charAt(end)) && input.charAt(end) != '"') {
+                    end++;
+                }
+                String term = term(input.substring(i, end));
+                if (term != null) clauses.add(term);
+                i = end;
+            }
+        }
+
+        // A query made only of exclusions matches nothing useful
+        if (clauses.stream().allMatch(clause -> clause.startsWith("!"))) return null;
+        return String.join(" & ", clauses);
+    }
+
+    /** A single whitespace separated token, possibly negated or with a prefix wildcard. */
+    private static String term(String token) {
+        boolean negated = token.startsWith("-");
+        boolean prefix = token.endsWith("*");
+        List<String> words = words(token);
+        if (words.isEmpty()) return null;
+
+        String clause;
+        if (words.size() == 1) {
+            clause = words.get(0) + (prefix ? ":*" : "");
+        } else {
+            // Tokens like "disk-full" are treated as a phrase of their parts
+            clause = phrase(words);
+            if (prefix) clause = clause.substring(0, clause.length() - 1) + ":*)";
+        }
+        return negated ? "!" + clause : clause;
+    }
+
+    private static String phrase(List<String> words) {
+        if (words.isEmpty()) return null;
+        if (words.size() == 1) return words.get(0);
+        return "(" + String.join(" <-> ", words) + ")";
+    }
+
+    /** Splits text into lower-case runs of letters and digits. */
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        text.codePoints().forEach(cp -> {
+            if (Character.isLetterOrDigit(cp)) {
+                word.appendCodePoint(Character.toLowerCase(cp));
+            } else if (!word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        });
+        if (!word.isEmpty()) words.add(word.toString());
+        return words;
+    }
+}
@@ -0,0 +1,55 @@
+package org.opslog.security;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable snapshot of what an account may see and do: the ids of its groups and whether it is an
+ * administrator.
+ * <p>
+ * Built by {@link AccountSecurityContexts} when an account is first seen and after each membership
+ * change, so repository calls do not walk {@code Account.getGroups()} on every query. The
+ * {@link #version()} tells snapshots of the same account apart.
+ * </p>
+ */
+public final class AccountSecurityContext {
+
+    private final long accountId;
+    private final long[] groupIds;
+    private final List<Long> groupIdList;
+    private final boolean admin;
+    private final long version;
+
+    AccountSecurityContext(long accountId, long[] groupIds, boolean admin, long version) {
+        this.accountId = accountId;
+        this.groupIds = groupIds.clone();
+        Arrays.sort(this.groupIds);
+        this.groupIdList = Arrays.stream(this.groupIds).boxed().toList();
+        this.admin = admin;
+        this.version = version;
+    }
+
+    public long accountId() { return accountId; }
+
+    /** Whether the account belongs to the ADMINISTRATOR group. */
+    public boolean admin() { return admin; }
+
+    /** Cache generation this snapshot was built in; a newer snapshot of the account has a higher version. */
+    public long version() { return version; }
+
+    /** True if the account belongs to no group and therefore sees no logs. */
+    public boolean hasNoGroups() { return groupIds.length == 0; }
+
+    public boolean isMember(long groupId) {
+        return Arrays.binarySearch(groupIds, groupId) >= 0;
+    }
+
+    /** Group ids in ascending order. */
+    public long[] groupIds() { return groupIds.clone(); }
+
+    /** Group ids in ascending order, boxed once for binding as a query parameter. */
+    public List<Long> groupIdList() { return groupIdList; }
+
+    /** Group ids for binding as a PostgreSQL {@code bigint[]} parameter. */
+    public Long[] groupIdArray() { return groupIdList.toArray(Long[]::new); }
+}
@@ -0,0 +1,123 @@
+package org.opslog.security;
+
+import org.opslog.entities.Account;
+import org.opslog.enums.AppGroup;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of {@link AccountSecurityContext} per account id.
+ * <p>
+ * A context is loaded with one query the first time an account is used and kept until a
+ * {@link MembershipChange} for the account completes its transaction, on this node or, through
+ * {@link MembershipListener}, on any other. Every invalidation bumps a version counter; a context
+ * loaded concurrently with an invalidation is returned to its caller but not cached, so a stale
+ * membership can never be stored after the change.
+ * </p>
+ * <p>
+ * The cache holds at most {@code opslog.security.context-cache.max-size} accounts, and each
+ * context expires {@code opslog.security.context-cache.expire-after-write} after it was loaded.
+ * The expiry bounds how long a missed notification (listener reconnecting) can leave a stale
+ * membership in place.
+ * </p>
+ */
+@ApplicationScoped
+public class AccountSecurityContexts {
+
+    private final AtomicLong version = new AtomicLong();
+    private Map<Long, AccountSecurityContext> contexts;
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "opslog.security.context-cache.max-size", defaultValue = "10000")
+    long maxSize;
+
+    @ConfigProperty(name = "opslog.security.context-cache.expire-after-write", defaultValue = "5m")
+    Duration expireAfterWrite;
+
+    @PostConstruct
+    void init() {
+        contexts = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expireAfterWrite)
+            .<Long, AccountSecurityContext>build()
+            .asMap();
+    }
+
+    /** The security context of the account, loaded on first use. */
+    public AccountSecurityContext of(Account account) {
+        AccountSecurityContext context = contexts.get(account.getId());
+        if (context != null) return context;
+
+        long loadedVersion = version.get();
+        context = load(account.getId(), loadedVersion);
+        if (version.get() == loadedVersion) contexts.putIfAbsent(account.getId(), context);
+        return context;
+    }
+
+    private AccountSecurityContext load(long accountId, long loadedVersion) {
+        List<Object[]> rows = entityManager.createQuery(
+                "select g.id, g.appGroup from Account a join a.groups g where a.id = :id", Object[].class)
+            .setParameter("id", accountId)
+            .getResultList();
+
+        long[] groupIds = new long[rows.size()];
+        boolean admin = false;
+        for (int i = 0; i < groupIds.length; i++) {
+            groupIds[i] = (Long) rows.get(i)[0];
+            admin |= rows.get(i)[1] == AppGroup.ADMINISTRATOR;
+        }
+        return new AccountSecurityContext(accountId, groupIds, admin, loadedVersion);
+    }
+
+    /** The cached context of the account, or {@code null}; for callers that load it without blocking. */
+    public AccountSecurityContext cached(long accountId) {
+        return contexts.get(accountId);
+    }
+
+    /** Cache generation to pass to {@link #store} for a context about to be loaded. */
+    public long currentVersion() {
+        return version.get();
+    }
+
+    /**
+     * Builds a context loaded by the caller, e.g. over the reactive client, and caches it unless
+     * the account was invalidated since {@code loadedVersion} was read.
+     */
+    public AccountSecurityContext store(long accountId, long[] groupIds, boolean admin, long loadedVersion) {
+        AccountSecurityContext context = new AccountSecurityContext(accountId, groupIds, admin, loadedVersion);
+        if (version.get() == loadedVersion) contexts.putIfAbsent(accountId, context);
+        return context;
+    }
+
+    /** Drops the cached context of the account; the next call reloads it. */
+    public void invalidate(long accountId) {
+        version.incrementAndGet();
+        contexts.remove(accountId);
+    }
+
+    /** Drops all cached contexts. */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        contexts.clear();
+    }
+
+    // After completion rather than after success: a rolled back change may have been cached meanwhile
+    void onMembershipChange(@Observes(during = TransactionPhase.AFTER_COMPLETION) MembershipChange change) {
+        invalidate(change.accountId());
+    }
+}
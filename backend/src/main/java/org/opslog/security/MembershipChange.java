@@ -0,0 +1,7 @@
+package org.opslog.security;
+
+/**
+ * CDI event fired when an account joined or left a group.
+ * Invalidates the cached {@link AccountSecurityContext} of the account.
+ */
+public record MembershipChange(long accountId) {}
@@ -0,0 +1,119 @@
+package org.opslog.security;
+
+import org.jboss.logging.Logger;
+import org.opslog.schema.SchemaMigrations;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Receives the membership notifications of {@code SchemaMigrations} step 011 and turns them into
+ * {@link MembershipChange} events on this node.
+ * <p>
+ * The triggers fire on every change to {@code account_groups}, so memberships changed by another
+ * node, or by persisting {@code Account.setGroups} directly, reach {@link AccountSecurityContexts}
+ * and the live tail like local changes do. A change made on this node is therefore seen twice,
+ * which only costs a reload. Like the log tail listener, it holds its own connection outside the
+ * pool and reconnects with backoff; every cached context is dropped after a reconnect, since
+ * notifications sent meanwhile are lost.
+ * </p>
+ */
+@ApplicationScoped
+public class MembershipListener {
+
+    private static final Logger LOG = Logger.getLogger(MembershipListener.class);
+
+    /** How long one poll waits for notifications before checking for shutdown. */
+    private static final int POLL_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    @Inject
+    AccountSecurityContexts securityContexts;
+
+    @Inject
+    Event<MembershipChange> membershipChanges;
+
+    @ConfigProperty(name = "quarkus.datasource.jdbc.url")
+    String url;
+
+    @ConfigProperty(name = "quarkus.datasource.username")
+    String username;
+
+    @ConfigProperty(name = "quarkus.datasource.password")
+    String password;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    // After the schema steps, which create the triggers
+    void onStart(@Observes @Priority(Interceptor.Priority.LIBRARY_AFTER) StartupEvent event) {
+        running = true;
+        thread = Thread.ofPlatform().name("opslog-membership").daemon().start(this::listen);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        running = false;
+        if (thread != null) thread.interrupt();
+    }
+
+    private void listen() {
+        long backoff = 0;
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + SchemaMigrations.MEMBERSHIP_NOTIFY_CHANNEL);
+                }
+                if (reconnect) {
+                    LOG.info("Membership listener reconnected");
+                    securityContexts.invalidateAll();
+                }
+                backoff = 0;
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) dispatch(notification.getParameter());
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                backoff = backoff == 0 ? 500 : Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                LOG.warnf("Membership listener lost its database connection, retrying in %d ms: %s", backoff, e.getMessage());
+                reconnect = true;
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        if ("*".equals(payload)) {
+            securityContexts.invalidateAll();
+            return;
+        }
+        try {
+            // No transaction is active here, so transactional observers are notified right away
+            membershipChanges.fire(new MembershipChange(Long.parseLong(payload)));
+        } catch (NumberFormatException e) {
+            LOG.warnf("Ignoring malformed membership notification %s", payload);
+        }
+    }
+}
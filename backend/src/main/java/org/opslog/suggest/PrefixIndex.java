@@ -0,0 +1,74 @@
+package org.opslog.suggest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Thread-safe in-memory prefix index from display text to entity id.
+ * <p>
+ * Entries are kept in a sorted map keyed by {@code normalized text + '\0' + id}; all entries
+ * sharing a prefix form one contiguous range, so a lookup is a {@code O(log n)} seek followed by
+ * reading at most {@code limit} entries. A second map remembers the current key per id so renames
+ * and removals do not need the old text. Reads never block and never touch the database.
+ * </p>
+ */
+public class PrefixIndex {
+
+    private static final char SEPARATOR = '\0';
+
+    private final ConcurrentSkipListMap<String, Suggestion> entries = new ConcurrentSkipListMap<>();
+    private final Map<Long, String> keysById = new ConcurrentHashMap<>();
+
+    static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Adds or renames the entry for the id; blank text removes it. */
+    public void put(long id, String text) {
+        if (text == null || text.isBlank()) {
+            remove(id);
+            return;
+        }
+        String key = normalize(text) + SEPARATOR + id;
+        Suggestion suggestion = new Suggestion(id, text);
+        keysById.compute(id, (ignored, previous) -> {
+            if (previous != null && !previous.equals(key)) entries.remove(previous);
+            entries.put(key, suggestion);
+            return key;
+        });
+    }
+
+    public void remove(long id) {
+        keysById.computeIfPresent(id, (ignored, previous) -> {
+            entries.remove(previous);
+            return null;
+        });
+    }
+
+    public void clear() {
+        keysById.clear();
+        entries.clear();
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    /** Returns up to {@code limit} entries whose text starts with the prefix, in alphabetical order. */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (prefix == null || limit <= 0) return List.of();
+        String from = normalize(prefix);
+        if (from.isEmpty()) return List.of();
+
+        List<Suggestion> result = new ArrayList<>(Math.min(limit, 64));
+        for (Map.Entry<String, Suggestion> entry : entries.tailMap(from).entrySet()) {
+            if (!entry.getKey().startsWith(from) || result.size() == limit) break;
+            result.add(entry.getValue());
+        }
+        return result;
+    }
+}
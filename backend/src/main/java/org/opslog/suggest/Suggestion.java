@@ -0,0 +1,4 @@
+package org.opslog.suggest;
+
+/** An autocomplete entry: the id of a tag or account and its display text. */
+public record Suggestion(long id, String text) {}
@@ -0,0 +1,14 @@
+package org.opslog.suggest;
+
+/**
+ * CDI event describing a change to an autocompleted value.
+ * A {@code null} text means the entity was deleted.
+ */
+public record SuggestionChange(Kind kind, long id, String text) {
+
+    public enum Kind { TAG, USERNAME }
+
+    public static SuggestionChange removed(Kind kind, long id) {
+        return new SuggestionChange(kind, id, null);
+    }
+}
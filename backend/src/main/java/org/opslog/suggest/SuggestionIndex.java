@@ -0,0 +1,121 @@
+package org.opslog.suggest;
+
+import org.jboss.logging.Logger;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process autocomplete for tag titles and usernames.
+ * <p>
+ * Both indexes are loaded once at startup and then maintained incrementally from
+ * {@link SuggestionChange} events, which are applied only after the surrounding transaction
+ * committed. {@link #suggestTags} and {@link #suggestUsernames} are served from memory only,
+ * so type-ahead requests never reach PostgreSQL.
+ * </p>
+ * <p>
+ * Each node maintains its own copy from its own writes; changes made by other nodes become
+ * visible after {@link #reload()} (or a restart). A reload builds new indexes off to the side and
+ * swaps them in, so suggestions keep being served from the old ones meanwhile. Changes observed
+ * during the reload are recorded and replayed onto the new indexes before the swap.
+ * </p>
+ */
+@ApplicationScoped
+public class SuggestionIndex {
+
+    private static final Logger LOG = Logger.getLogger(SuggestionIndex.class);
+
+    private final AtomicReference<PrefixIndex> tags = new AtomicReference<>(new PrefixIndex());
+    private final AtomicReference<PrefixIndex> usernames = new AtomicReference<>(new PrefixIndex());
+
+    /** Guards {@link #replay} and the swap; changes are applied under it too, so none slips between. */
+    private final ReentrantLock changeLock = new ReentrantLock();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    /** Changes observed since the running reload started, or {@code null} outside of a reload. */
+    private List<SuggestionChange> replay;
+
+    @Inject
+    EntityManager entityManager;
+
+    void onStart(@Observes StartupEvent event) {
+        reload();
+    }
+
+    /** Rebuilds both indexes from the database and swaps them in. */
+    @Transactional
+    public void reload() {
+        reloadLock.lock();
+        try {
+            changeLock.lock();
+            try {
+                replay = new ArrayList<>();
+            } finally {
+                changeLock.unlock();
+            }
+
+            PrefixIndex newTags = load("select t.id, t.title from Tag t");
+            PrefixIndex newUsernames = load("select a.id, a.username from Account a");
+
+            changeLock.lock();
+            try {
+                for (SuggestionChange change : replay) {
+                    apply(change.kind() == SuggestionChange.Kind.TAG ? newTags : newUsernames, change);
+                }
+                tags.set(newTags);
+                usernames.set(newUsernames);
+            } finally {
+                replay = null;
+                changeLock.unlock();
+            }
+            LOG.infof("Suggestion index loaded: %d tags, %d usernames", newTags.size(), newUsernames.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private PrefixIndex load(String query) {
+        PrefixIndex index = new PrefixIndex();
+        for (Object[] row : entityManager.createQuery(query, Object[].class).getResultList()) {
+            index.put((Long) row[0], (String) row[1]);
+        }
+        return index;
+    }
+
+    /** Tags whose title starts with the prefix (case-insensitive). */
+    public List<Suggestion> suggestTags(String prefix, int limit) {
+        return tags.get().suggest(prefix, limit);
+    }
+
+    /** Accounts whose username starts with the prefix (case-insensitive). */
+    public List<Suggestion> suggestUsernames(String prefix, int limit) {
+        return usernames.get().suggest(prefix, limit);
+    }
+
+    void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) SuggestionChange change) {
+        changeLock.lock();
+        try {
+            apply(change.kind() == SuggestionChange.Kind.TAG ? tags.get() : usernames.get(), change);
+            if (replay != null) replay.add(change);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    private static void apply(PrefixIndex index, SuggestionChange change) {
+        if (change.text() == null) {
+            index.remove(change.id());
+        } else {
+            index.put(change.id(), change.text());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.opslog.suggest;
+
+import org.opslog.entities.Account;
+import org.opslog.entities.Tag;
+import org.opslog.suggest.SuggestionChange.Kind;
+
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener publishing {@link SuggestionChange} events for tags and accounts.
+ * <p>
+ * Registered on {@link Tag} and {@link Account}. The events are observed after commit by
+ * {@link SuggestionIndex}, so rolled back changes never reach the index. Bulk HQL deletes bypass
+ * entity listeners and have to fire the event themselves.
+ * </p>
+ */
+public class SuggestionListener {
+
+    @PostPersist
+    @PostUpdate
+    void saved(Object entity) {
+        if (entity instanceof Tag tag) {
+            fire(new SuggestionChange(Kind.TAG, tag.getId(), tag.getTitle()));
+        } else if (entity instanceof Account account) {
+            fire(new SuggestionChange(Kind.USERNAME, account.getId(), account.getUsername()));
+        }
+    }
+
+    @PostRemove
+    void removed(Object entity) {
+        if (entity instanceof Tag tag) {
+            fire(SuggestionChange.removed(Kind.TAG, tag.getId()));
+        } else if (entity instanceof Account account) {
+            fire(SuggestionChange.removed(Kind.USERNAME, account.getId()));
+        }
+    }
+
+    static void fire(SuggestionChange change) {
+        Arc.container().beanManager().getEvent().select(SuggestionChange.class).fire(change);
+    }
+}
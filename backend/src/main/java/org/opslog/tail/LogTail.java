@@ -0,0 +1,117 @@
+package org.opslog.tail;
+
+import org.jboss.logging.Logger;
+import org.opslog.security.AccountSecurityContext;
+import org.opslog.security.MembershipChange;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans live log events out to the subscribers allowed to see them.
+ * <p>
+ * Subscribers are indexed by the groups of their account, so an event only touches the
+ * subscribers of the groups it is visible to and visibility is decided in memory. Each subscriber
+ * has a bounded buffer; a client that does not keep up is disconnected when it overflows instead
+ * of slowing down everybody else, and is expected to reconnect and reload.
+ * </p>
+ */
+@ApplicationScoped
+public class LogTail {
+
+    private static final Logger LOG = Logger.getLogger(LogTail.class);
+
+    /** A connected client. */
+    private record Subscriber(AccountSecurityContext security, MultiEmitter<? super LogTailEvent> emitter) {}
+
+    private final Map<Long, Set<Subscriber>> byGroup = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> byAccount = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    /** Events buffered per subscriber before it is dropped as too slow. */
+    @ConfigProperty(name = "opslog.tail.buffer-size", defaultValue = "256")
+    int bufferSize;
+
+    @ConfigProperty(name = "opslog.tail.max-subscribers", defaultValue = "10000")
+    int maxSubscribers;
+
+    /** Whether another subscriber can be accepted on this node. */
+    public boolean hasCapacity() {
+        return subscribers.get() < maxSubscribers;
+    }
+
+    public int subscriberCount() {
+        return subscribers.get();
+    }
+
+    /** The live events visible to the account, until the client disconnects or falls behind. */
+    public Multi<LogTailEvent> subscribe(AccountSecurityContext security) {
+        return Multi.createFrom().<LogTailEvent>emitter(emitter -> {
+                Subscriber subscriber = new Subscriber(security, emitter);
+                add(subscriber);
+                emitter.onTermination(() -> remove(subscriber));
+            }, bufferSize)
+            .onFailure(BackPressureFailure.class).invoke(failure ->
+                LOG.debugf("Dropped live tail subscriber of account %d: buffer full", security.accountId()))
+            .onFailure(BackPressureFailure.class).recoverWithCompletion();
+    }
+
+    /** Delivers an event to every subscriber allowed to see it; called by the listener thread. */
+    void publish(LogTailEvent event, long[] groupIds) {
+        Set<Subscriber> targets = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (long groupId : groupIds) {
+            Set<Subscriber> members = byGroup.get(groupId);
+            if (members != null) targets.addAll(members);
+        }
+        for (Subscriber subscriber : targets) subscriber.emitter().emit(event);
+    }
+
+    /** Tells every subscriber to reload, e.g. after notifications may have been missed. */
+    void resync() {
+        for (Set<Subscriber> subscribers : byAccount.values()) {
+            for (Subscriber subscriber : subscribers) subscriber.emitter().emit(LogTailEvent.RESYNC);
+        }
+    }
+
+    // Group memberships are captured at subscription; end the affected streams so clients
+    // reconnect with their new memberships
+    void onMembershipChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) MembershipChange change) {
+        Set<Subscriber> subscribers = byAccount.get(change.accountId());
+        if (subscribers == null) return;
+        for (Subscriber subscriber : Set.copyOf(subscribers)) subscriber.emitter().complete();
+    }
+
+    private void add(Subscriber subscriber) {
+        subscribers.incrementAndGet();
+        byAccount.computeIfAbsent(subscriber.security().accountId(), id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        for (long groupId : subscriber.security().groupIds()) {
+            byGroup.computeIfAbsent(groupId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.decrementAndGet();
+        removeFrom(byAccount, subscriber.security().accountId(), subscriber);
+        for (long groupId : subscriber.security().groupIds()) removeFrom(byGroup, groupId, subscriber);
+    }
+
+    private static void removeFrom(Map<Long, Set<Subscriber>> index, long key, Subscriber subscriber) {
+        index.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+}
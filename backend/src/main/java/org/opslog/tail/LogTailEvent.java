@@ -0,0 +1,18 @@
+package org.opslog.tail;
+
+import java.time.ZonedDateTime;
+
+/**
+ * One entry of the live log tail.
+ * <p>
+ * {@code CREATED} and {@code REVISED} describe an inserted log ({@code title} is cut to 200
+ * characters). {@code RESYNC} carries no log: events may have been missed (a bulk import, a lost
+ * database connection) and the client should reload its list.
+ * </p>
+ */
+public record LogTailEvent(Kind kind, Long id, Long rootId, ZonedDateTime timeOfEvent, String title, String author) {
+
+    public enum Kind { CREATED, REVISED, RESYNC }
+
+    static final LogTailEvent RESYNC = new LogTailEvent(Kind.RESYNC, null, null, null, null, null);
+}
@@ -0,0 +1,135 @@
+package org.opslog.tail;
+
+import org.jboss.logging.Logger;
+import org.opslog.index.LogBitmapIndex;
+import org.opslog.schema.SchemaMigrations;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+/**
+ * Database listener of the log channel: receives the log insert notifications of
+ * {@code SchemaMigrations} step 009 and hands them to {@link LogTail}, and to the
+ * {@link LogBitmapIndex}, which so learns about logs inserted by other nodes. Membership changes,
+ * which end tail subscriptions, arrive through {@code MembershipListener}.
+ * <p>
+ * {@code LISTEN} binds to a session, so the listener holds its own JDBC connection outside the
+ * pool, on a daemon thread. After losing the connection it reconnects with backoff and sends a
+ * {@code RESYNC}, since notifications sent meanwhile are lost.
+ * </p>
+ */
+@ApplicationScoped
+public class LogTailListener {
+
+    private static final Logger LOG = Logger.getLogger(LogTailListener.class);
+
+    /** How long one poll waits for notifications before checking for shutdown. */
+    private static final int POLL_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    @Inject
+    LogTail tail;
+
+    @Inject
+    LogBitmapIndex bitmapIndex;
+
+    @ConfigProperty(name = "opslog.tail.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "quarkus.datasource.jdbc.url")
+    String url;
+
+    @ConfigProperty(name = "quarkus.datasource.username")
+    String username;
+
+    @ConfigProperty(name = "quarkus.datasource.password")
+    String password;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    // After the schema steps, which create the trigger
+    void onStart(@Observes @Priority(Interceptor.Priority.LIBRARY_AFTER) StartupEvent event) {
+        if (!enabled) return;
+        running = true;
+        thread = Thread.ofPlatform().name("opslog-log-tail").daemon().start(this::listen);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        running = false;
+        if (thread != null) thread.interrupt();
+    }
+
+    private void listen() {
+        long backoff = 0;
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + SchemaMigrations.LOG_NOTIFY_CHANNEL);
+                }
+                if (reconnect) {
+                    LOG.info("Live log tail reconnected");
+                    tail.resync();
+                }
+                backoff = 0;
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) dispatch(notification.getParameter());
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                backoff = backoff == 0 ? 500 : Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                LOG.warnf("Live log tail lost its database connection, retrying in %d ms: %s", backoff, e.getMessage());
+                reconnect = true;
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        try {
+            JsonObject json = new JsonObject(payload);
+            LogTailEvent.Kind kind = LogTailEvent.Kind.valueOf(json.getString("kind"));
+            if (kind == LogTailEvent.Kind.RESYNC) {
+                tail.resync();
+                bitmapIndex.rebuild();
+                return;
+            }
+            // Also this node's own inserts, which only costs a reload
+            bitmapIndex.refreshChain(json.getLong("root"));
+            JsonArray groups = json.getJsonArray("groups");
+            long[] groupIds = new long[groups.size()];
+            for (int i = 0; i < groupIds.length; i++) groupIds[i] = groups.getLong(i);
+            tail.publish(new LogTailEvent(kind, json.getLong("id"), json.getLong("root"),
+                Instant.ofEpochMilli(json.getLong("time")).atZone(ZoneOffset.UTC),
+                json.getString("title"), json.getString("author")), groupIds);
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Ignoring malformed log notification %s", payload);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.opslog.tail;
+
+import org.opslog.concurrency.DatabaseBound;
+import org.opslog.entities.Account;
+import org.opslog.repositories.AccountRepository;
+import org.opslog.security.AccountSecurityContexts;
+
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Multi;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+/**
+ * Server-sent event stream of the logs created or revised from now on and visible to the caller.
+ * <p>
+ * Replaces polling the list: a client loads the list once, then applies the events of this
+ * stream. On a {@code RESYNC} event, or when the stream ends (membership change, client too slow,
+ * server restart), it reloads the list and reconnects.
+ * </p>
+ */
+@Path("/logs/tail")
+public class LogTailResource {
+
+    @Inject
+    LogTail tail;
+
+    @Inject
+    AccountRepository accountRepository;
+
+    @Inject
+    AccountSecurityContexts securityContexts;
+
+    @GET
+    @RunOnVirtualThread
+    @DatabaseBound
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<LogTailEvent> tail(@Context SecurityContext securityContext) {
+        Account account = securityContext.getUserPrincipal() == null ? null
+            : accountRepository.findByUsername(securityContext.getUserPrincipal().getName());
+        if (account == null) throw new WebApplicationException(Response.Status.UNAUTHORIZED);
+        if (!tail.hasCapacity()) throw new WebApplicationException(Response.Status.SERVICE_UNAVAILABLE);
+        return tail.subscribe(securityContexts.of(account));
+    }
+}
@@ -0,0 +1,69 @@
+package org.opslog.entities;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextDeltaTest {
+
+    private static void assertRoundTrip(String base, String target) {
+        assertEquals(target, TextDelta.apply(base, TextDelta.encode(base, target)));
+    }
+
+    @Test
+    void keepsOnlyTheChangedMiddle() {
+        String delta = TextDelta.encode("Pump 3 failed at noon", "Pump 4 failed at noon");
+        assertEquals("5:15:4", delta);
+        assertEquals("Pump 4 failed at noon", TextDelta.apply("Pump 3 failed at noon", delta));
+    }
+
+    @Test
+    void roundTripsInsertionsDeletionsAndReplacements() {
+        assertRoundTrip("abc", "abc");
+        assertRoundTrip("abc", "abXc");
+        assertRoundTrip("abXc", "abc");
+        assertRoundTrip("abc", "xyz");
+        assertRoundTrip("", "abc");
+        assertRoundTrip("abc", "");
+        assertRoundTrip("aaaa", "aa");
+        assertRoundTrip("aa", "aaaa");
+    }
+
+    @Test
+    void treatsNullBaseAsEmpty() {
+        assertEquals("0:0:abc", TextDelta.encode(null, "abc"));
+        assertEquals("abc", TextDelta.apply(null, "0:0:abc"));
+    }
+
+    @Test
+    void encodesNullAsNull() {
+        assertNull(TextDelta.encode("abc", null));
+        assertNull(TextDelta.apply("abc", null));
+    }
+
+    @Test
+    void doesNotSplitSurrogatePairs() {
+        // Both emoji share their high surrogate; the middle must still hold a whole code point
+        String base = "status 😀 ok";
+        String target = "status 😁 ok";
+        String delta = TextDelta.encode(base, target);
+        String middle = delta.substring(delta.indexOf(':', delta.indexOf(':') + 1) + 1);
+        assertEquals("😁", middle);
+        assertRoundTrip(base, target);
+    }
+
+    @Test
+    void savesSpaceOnSmallEdits() {
+        String base = "x".repeat(1000);
+        String target = base + "y";
+        assertTrue(TextDelta.sizeChange(target, TextDelta.encode(base, target)) < 0);
+    }
+
+    @Test
+    void rejectsMalformedDeltas() {
+        assertThrows(IllegalStateException.class, () -> TextDelta.apply("abc", "no delta"));
+    }
+}
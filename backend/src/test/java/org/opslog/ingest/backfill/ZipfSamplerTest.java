@@ -0,0 +1,73 @@
+package org.opslog.ingest.backfill;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipfSamplerTest {
+
+    private static final int SAMPLES = 200_000;
+
+    /** Occurrences of each rank, indexed by rank. */
+    private static int[] histogram(ZipfSampler sampler, int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] counts = new int[n + 1];
+        for (int i = 0; i < SAMPLES; i++) {
+            int rank = sampler.sample(random);
+            assertTrue(rank >= 1 && rank <= n, "rank out of range: " + rank);
+            counts[rank]++;
+        }
+        return counts;
+    }
+
+    @Test
+    void followsTheZipfLaw() {
+        int n = 1000;
+        int[] counts = histogram(new ZipfSampler(n, 1.0), n, 42);
+
+        double harmonic = 0;
+        for (int rank = 1; rank <= n; rank++) harmonic += 1.0 / rank;
+        assertEquals(1 / harmonic, counts[1] / (double) SAMPLES, 0.01);
+        assertEquals(2.0, counts[1] / (double) counts[2], 0.15);
+        assertEquals(10.0, counts[1] / (double) counts[10], 1.0);
+    }
+
+    @Test
+    void steeperExponentsConcentrateOnTheTopRanks() {
+        int[] counts = histogram(new ZipfSampler(50, 2.0), 50, 7);
+        assertEquals(4.0, counts[1] / (double) counts[2], 0.3);
+    }
+
+    @Test
+    void exponentZeroIsUniform() {
+        int n = 10;
+        int[] counts = histogram(new ZipfSampler(n, 0), n, 1);
+        for (int rank = 1; rank <= n; rank++) {
+            assertEquals(SAMPLES / (double) n, counts[rank], SAMPLES * 0.01);
+        }
+    }
+
+    @Test
+    void singleRankAlwaysSamplesIt() {
+        ZipfSampler sampler = new ZipfSampler(1, 1.2);
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 100; i++) assertEquals(0, sampler.index(random));
+    }
+
+    @Test
+    void isDeterministicForASeed() {
+        ZipfSampler sampler = new ZipfSampler(500, 1.1);
+        assertArrayEquals(histogram(sampler, 500, 99), histogram(sampler, 500, 99));
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(10, -0.5));
+    }
+}
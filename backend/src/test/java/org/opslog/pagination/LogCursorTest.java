@@ -0,0 +1,86 @@
+package org.opslog.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogCursorTest {
+
+    @Test
+    void roundTripsTimeAndId() {
+        LogCursor cursor = new LogCursor(Instant.parse("2026-03-01T12:34:56.123456789Z"), 9_007_199_254_740_993L);
+        assertEquals(cursor, LogCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void roundTripsTimesBeforeTheEpoch() {
+        LogCursor cursor = new LogCursor(Instant.parse("1969-12-31T23:59:59.5Z"), 1);
+        assertEquals(cursor, LogCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void keepsTheInstantOfZonedTimes() {
+        ZonedDateTime time = ZonedDateTime.of(2026, 3, 1, 13, 0, 0, 0, ZoneId.of("Europe/Vienna"));
+        LogCursor cursor = LogCursor.decode(LogCursor.of(time, 7).encode());
+        assertEquals(time.toInstant(), cursor.time());
+        assertEquals(ZoneOffset.UTC, cursor.zonedTime().getZone());
+        assertEquals(7, cursor.id());
+    }
+
+    @Test
+    void encodesUrlSafeTokens() {
+        String token = new LogCursor(Instant.parse("2026-03-01T12:34:56.999999999Z"), Long.MAX_VALUE).encode();
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> LogCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> LogCursor.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> LogCursor.decode(encodeRaw("1:2")));
+        assertThrows(IllegalArgumentException.class, () -> LogCursor.decode(encodeRaw("a:0:1")));
+        assertThrows(IllegalArgumentException.class, () -> LogCursor.decode(encodeRaw("1:2:3:4")));
+    }
+
+    @Test
+    void pageRequestsCarryTheirCursor() {
+        LogCursor cursor = new LogCursor(Instant.parse("2026-03-01T00:00:00Z"), 42);
+        PageRequest next = PageRequest.after(cursor.encode(), 50);
+        PageRequest previous = PageRequest.before(cursor.encode(), 50);
+
+        assertEquals(cursor, next.decodedCursor());
+        assertEquals(PageRequest.Direction.NEXT, next.direction());
+        assertEquals(PageRequest.Direction.PREVIOUS, previous.direction());
+    }
+
+    @Test
+    void firstPagesHaveNoCursor() {
+        PageRequest first = PageRequest.first(50);
+        assertFalse(first.hasCursor());
+        assertNull(first.decodedCursor());
+        assertNull(new PageRequest(" ", 50, null).decodedCursor());
+        assertEquals(PageRequest.Direction.NEXT, new PageRequest(null, 50, null).direction());
+    }
+
+    @Test
+    void boundsThePageSize() {
+        assertThrows(IllegalArgumentException.class, () -> PageRequest.first(0));
+        assertThrows(IllegalArgumentException.class, () -> PageRequest.first(PageRequest.MAX_SIZE + 1));
+        assertEquals(PageRequest.MAX_SIZE, PageRequest.first(PageRequest.MAX_SIZE).size());
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,135 @@
+package org.opslog.repositories;
+
+import org.opslog.entities.Account;
+import org.opslog.entities.Group;
+import org.opslog.entities.Log;
+import org.opslog.enums.AppGroup;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Head maintenance of revision chains: whatever deletes a chain's head, the newest remaining
+ * revision takes over and the chain stays listed.
+ */
+@QuarkusTest
+class LogRepositoryHeadTest {
+
+    @Inject
+    LogRepository logs;
+
+    @Inject
+    AccountRepository accounts;
+
+    @Inject
+    GroupRepository groups;
+
+    private Account author;
+    private Account reviser;
+    private Account admin;
+
+    @BeforeEach
+    void accounts() {
+        String suffix = Long.toString(System.nanoTime());
+        QuarkusTransaction.requiringNew().run(() -> {
+            Group team = new Group("heads-" + suffix, "Head maintenance tests");
+            groups.persist(team);
+            Group administrators = groups.find("appGroup", AppGroup.ADMINISTRATOR).firstResultOptional().orElseGet(() -> {
+                Group created = new Group(AppGroup.ADMINISTRATOR);
+                groups.persist(created);
+                return created;
+            });
+            author = account("author-" + suffix, team);
+            reviser = account("reviser-" + suffix, team);
+            admin = account("admin-" + suffix, team);
+            groups.addAccountToGroup(admin, administrators);
+        });
+    }
+
+    private Account account(String username, Group group) {
+        Account account = new Account("Head", "Test", username + "@example.org", username, "secret", new HashSet<>());
+        accounts.persist(account);
+        groups.addAccountToGroup(account, group);
+        return account;
+    }
+
+    /** Writes an original by the author and the given number of revisions on top of it by the reviser. */
+    private long chain(int revisions) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Log original = new Log(author, ZonedDateTime.now(), new HashSet<>(), "Pump 3 failed", "Pump 3 failed at noon");
+            logs.persistAndFlush(original);
+            Log head = original;
+            for (int i = 1; i <= revisions; i++) {
+                Log revision = new Log(reviser, head.getTimeOfEvent(), new HashSet<>(),
+                    "Pump 3 failed (" + i + ")", "Pump 3 failed at noon, revision " + i);
+                logs.addRevision(head, revision, reviser);
+                head = revision;
+            }
+            return original.getId();
+        });
+    }
+
+    private List<Long> visibleIds(Account account) {
+        return QuarkusTransaction.requiringNew().call(() ->
+            logs.findAllVisibleLogs(account).stream().map(Log::getId).toList());
+    }
+
+    @Test
+    void deletingTheRevisersLogsPromotesTheOriginal() {
+        long original = chain(1);
+
+        long deleted = QuarkusTransaction.requiringNew().call(() -> logs.deleteLogsForAccount(admin, reviser));
+
+        assertEquals(1, deleted);
+        assertTrue(visibleIds(author).contains(original));
+        assertTrue(QuarkusTransaction.requiringNew().call(() -> logs.findById(original).isHead()));
+    }
+
+    @Test
+    void deletingSuccessiveRevisionsPromotesTheirNearestRemainingAncestor() {
+        // The middle revisions are delta-encoded against their parents once superseded
+        long original = chain(3);
+
+        long deleted = QuarkusTransaction.requiringNew().call(() -> logs.deleteLogsForAccounts(admin, Set.of(reviser)));
+
+        assertEquals(3, deleted);
+        assertTrue(visibleIds(author).contains(original));
+        QuarkusTransaction.requiringNew().run(() -> {
+            Log head = logs.findById(original);
+            assertTrue(head.isHead());
+            assertEquals("Pump 3 failed", head.getTitle());
+        });
+    }
+
+    @Test
+    void promotedRevisionsAreStoredInFull() {
+        long original = chain(2);
+        long firstRevision = QuarkusTransaction.requiringNew().call(() ->
+            logs.find("rootId = ?1 and revisionDepth = 1", original).firstResult().getId());
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            Log head = logs.find("rootId = ?1 and head = true", original).firstResult();
+            head.setCreatedBy(admin);
+        });
+        QuarkusTransaction.requiringNew().call(() -> logs.deleteLogsForAccount(admin, admin));
+
+        assertTrue(visibleIds(author).contains(firstRevision));
+        QuarkusTransaction.requiringNew().run(() -> {
+            Log head = logs.findById(firstRevision);
+            assertTrue(head.isHead());
+            assertEquals("Pump 3 failed (1)", head.getTitle());
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package org.opslog.rest;
+
+import org.opslog.entities.Account;
+import org.opslog.entities.Group;
+import org.opslog.entities.Log;
+import org.opslog.entities.Tag;
+import org.opslog.repositories.AccountRepository;
+import org.opslog.repositories.GroupRepository;
+import org.opslog.repositories.LogRepository;
+import org.opslog.repositories.TagRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.security.TestSecurity;
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * {@code GET /logs} against the test profile's query budget, which answers 500 when a request
+ * issues more SQL statements than allowed. Every log carries an author and tags, so loading
+ * either per row would break the budget.
+ */
+@QuarkusTest
+class LogResourceTest {
+
+    private static final String VIEWER = "budget-viewer";
+    private static final int LOGS = 60;
+
+    @Inject
+    AccountRepository accounts;
+
+    @Inject
+    GroupRepository groups;
+
+    @Inject
+    TagRepository tags;
+
+    @Inject
+    LogRepository logs;
+
+    @BeforeEach
+    void seed() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            if (accounts.findByUsername(VIEWER) != null) return;
+            Group group = new Group("budget-group", "Query budget tests");
+            groups.persist(group);
+            Account viewer = new Account("Budget", "Viewer", "budget-viewer@example.org", VIEWER, "secret", new HashSet<>());
+            accounts.persist(viewer);
+            groups.addAccountToGroup(viewer, group);
+
+            Tag pump = tags.addTag(new Tag("budget-pump", "Pump", "blue"));
+            Tag valve = tags.addTag(new Tag("budget-valve", "Valve", "red"));
+            ZonedDateTime start = ZonedDateTime.now().minusDays(1);
+            for (int i = 0; i < LOGS; i++) {
+                logs.persistAndFlush(new Log(viewer, start.plusMinutes(i), new HashSet<>(Set.of(pump, valve)),
+                    "Budget log " + i, "Description " + i));
+            }
+        });
+    }
+
+    @Test
+    @TestSecurity(user = VIEWER)
+    void firstPageStaysWithinBudget() {
+        given()
+            .queryParam("size", 50)
+            .when().get("/logs")
+            .then()
+            .statusCode(200)
+            .body("items", hasSize(50))
+            .body("items.author", everyItem(notNullValue()))
+            .body("items.tags", everyItem(hasSize(2)))
+            .body("next", notNullValue());
+    }
+
+    @Test
+    @TestSecurity(user = VIEWER)
+    void followingPageStaysWithinBudget() {
+        String next = given()
+            .queryParam("size", 50)
+            .when().get("/logs")
+            .then()
+            .statusCode(200)
+            .extract().path("next");
+
+        given()
+            .queryParam("size", 50)
+            .queryParam("cursor", next)
+            .when().get("/logs")
+            .then()
+            .statusCode(200)
+            .body("items", hasSize(LOGS - 50))
+            .body("previous", notNullValue());
+    }
+
+    @Test
+    @TestSecurity(user = VIEWER)
+    void timeRangeStaysWithinBudget() {
+        ZonedDateTime now = ZonedDateTime.now();
+        given()
+            .queryParam("from", now.minusDays(2).toOffsetDateTime().toString())
+            .queryParam("to", now.toOffsetDateTime().toString())
+            .when().get("/logs")
+            .then()
+            .statusCode(200)
+            .body("items", hasSize(50));
+    }
+}
@@ -0,0 +1,58 @@
+package org.opslog.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TsQueryBuilderTest {
+
+    @Test
+    void requiresAllWords() {
+        assertEquals("pump & failure", TsQueryBuilder.build("pump failure"));
+        assertEquals("pumpe & überdruck", TsQueryBuilder.build("  Pumpe   Überdruck "));
+    }
+
+    @Test
+    void buildsPhrases() {
+        assertEquals("(pump <-> failure)", TsQueryBuilder.build("\"pump failure\""));
+        assertEquals("boiler & (pump <-> failure)", TsQueryBuilder.build("boiler \"pump failure\""));
+        // An unterminated quote runs to the end of the input
+        assertEquals("(pump <-> failure)", TsQueryBuilder.build("\"pump failure"));
+    }
+
+    @Test
+    void buildsPrefixMatches() {
+        assertEquals("pum:*", TsQueryBuilder.build("pum*"));
+        assertEquals("(disk <-> ful:*)", TsQueryBuilder.build("disk-ful*"));
+    }
+
+    @Test
+    void treatsHyphenatedTokensAsPhrases() {
+        assertEquals("(disk <-> full)", TsQueryBuilder.build("disk-full"));
+    }
+
+    @Test
+    void excludesNegatedWords() {
+        assertEquals("pump & !test", TsQueryBuilder.build("pump -test"));
+        assertEquals("pump & !(dry <-> run)", TsQueryBuilder.build("pump -dry-run"));
+    }
+
+    @Test
+    void returnsNullWithoutSearchableWords() {
+        assertNull(TsQueryBuilder.build(null));
+        assertNull(TsQueryBuilder.build(""));
+        assertNull(TsQueryBuilder.build("   "));
+        assertNull(TsQueryBuilder.build("& | !"));
+        assertNull(TsQueryBuilder.build("\"\""));
+        // Only exclusions
+        assertNull(TsQueryBuilder.build("-test -debug"));
+    }
+
+    @Test
+    void neverPassesOperatorsThrough() {
+        assertEquals("a & b & c", TsQueryBuilder.build("a & b | !c"));
+        assertEquals("(a <-> b)", TsQueryBuilder.build("a<->b"));
+        assertEquals("(x <-> y)", TsQueryBuilder.build("x')(y"));
+    }
+}
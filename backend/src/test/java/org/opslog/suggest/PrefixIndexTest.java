@@ -0,0 +1,93 @@
+package org.opslog.suggest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefixIndexTest {
+
+    private static List<Long> ids(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::id).toList();
+    }
+
+    @Test
+    void suggestsMatchesInAlphabeticalOrder() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(1, "pump");
+        index.put(2, "Pressure");
+        index.put(3, "pumping station");
+        index.put(4, "valve");
+
+        assertEquals(List.of(1L, 3L), ids(index.suggest("pu", 10)));
+        assertEquals(List.of(2L, 1L, 3L), ids(index.suggest("P", 10)));
+        assertEquals("Pressure", index.suggest("pre", 10).get(0).text());
+    }
+
+    @Test
+    void normalizesCaseAndSurroundingWhitespace() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(1, "  Boiler Room ");
+
+        assertEquals(List.of(1L), ids(index.suggest("BOILER r", 10)));
+        assertEquals(List.of(1L), ids(index.suggest(" boi", 10)));
+    }
+
+    @Test
+    void keepsEntriesWithTheSameText() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(2, "pump");
+        index.put(1, "pump");
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(1L, 2L), ids(index.suggest("pump", 10)));
+    }
+
+    @Test
+    void renamesAndRemovesById() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(1, "pump");
+        index.put(1, "valve");
+
+        assertTrue(index.suggest("pump", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.suggest("val", 10)));
+
+        index.remove(1);
+        assertTrue(index.suggest("val", 10).isEmpty());
+        assertEquals(0, index.size());
+
+        index.put(2, "pump");
+        index.put(2, " ");
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void honorsTheLimit() {
+        PrefixIndex index = new PrefixIndex();
+        for (long id = 1; id <= 20; id++) index.put(id, "tag-" + id);
+
+        assertEquals(5, index.suggest("tag", 5).size());
+        assertTrue(index.suggest("tag", 0).isEmpty());
+    }
+
+    @Test
+    void ignoresEmptyPrefixes() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(1, "pump");
+
+        assertTrue(index.suggest(null, 10).isEmpty());
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(1, "pump");
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertTrue(index.suggest("p", 10).isEmpty());
+    }
+}
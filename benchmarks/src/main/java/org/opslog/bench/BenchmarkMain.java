@@ -0,0 +1,43 @@
+package org.opslog.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the benchmarks selected on the command line (JMH syntax, all by default) with the
+ * {@code gc} profiler for allocation rates, writing {@code target/jmh-result.json}.
+ * <p>
+ * The {@code quarkus.*} and {@code opslog.*} system properties of this JVM, e.g. the datasource
+ * URL and the dataset size, are passed on to the forked benchmark JVMs.
+ * </p>
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        List<String> jvmArgs = new ArrayList<>();
+        jvmArgs.add("-Djava.util.logging.manager=org.jboss.logmanager.LogManager");
+        System.getProperties().stringPropertyNames().stream()
+            .filter(name -> name.startsWith("quarkus.") || name.startsWith("opslog."))
+            .sorted()
+            .forEach(name -> jvmArgs.add("-D" + name + "=" + System.getProperty(name)));
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .jvmArgsAppend(jvmArgs.toArray(String[]::new))
+            .resultFormat(ResultFormatType.JSON)
+            .result("target/jmh-result.json");
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,112 @@
+package org.opslog.bench;
+
+import org.opslog.entities.Account;
+import org.opslog.entities.Group;
+import org.opslog.entities.Log;
+import org.opslog.entities.Tag;
+import org.opslog.repositories.AccountRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Benchmark state shared by all benchmarks of a fork: the running backend, the seeded dataset
+ * and the detached entities the benchmarks query with.
+ * <p>
+ * The dataset is seeded on first use and reused afterwards; drop the {@code bench-*} rows (or the
+ * database) to seed another size.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class Dataset {
+
+    /** Reads like a user of the benchmark groups: member of one to three groups. */
+    public Account viewer;
+    /** Administrator member of every benchmark group, for the delete paths. */
+    public Account admin;
+    public Account author;
+    public Set<Account> authors;
+    public Group group;
+    public Tag tag;
+    public Set<Tag> tags;
+    public ZonedDateTime rangeFrom;
+    public ZonedDateTime rangeTo;
+    /** A log visible to {@link #viewer}, for the exact-match finders. */
+    public Log sample;
+    /** The original of a chain with revisions. */
+    public Log revised;
+    public String titleWord;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OpslogApplication.start();
+        DatasetSize size = DatasetSize.fromConfig();
+        DatasetSeeder seeder = new DatasetSeeder(size);
+        if (!seeder.seeded()) seeder.seed();
+        inTransaction(() -> {
+            load(size);
+            return null;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        OpslogApplication.stop();
+    }
+
+    private void load(DatasetSize size) {
+        EntityManager entityManager = OpslogApplication.bean(EntityManager.class);
+        AccountRepository accounts = OpslogApplication.bean(AccountRepository.class);
+
+        viewer = accounts.findByUsername(DatasetSeeder.username(0));
+        admin = accounts.findByUsername(DatasetSeeder.ADMIN);
+        author = accounts.findByUsername(DatasetSeeder.username(1));
+        authors = new HashSet<>();
+        for (int i = 1; i <= Math.min(5, size.accounts() - 1); i++) {
+            authors.add(accounts.findByUsername(DatasetSeeder.username(i)));
+        }
+        group = viewer.getGroups().iterator().next();
+
+        List<Tag> tagList = entityManager
+            .createQuery("from Tag t where t.title in :titles", Tag.class)
+            .setParameter("titles", List.of(DatasetSeeder.tagTitle(0), DatasetSeeder.tagTitle(1), DatasetSeeder.tagTitle(2)))
+            .getResultList();
+        tag = tagList.get(0);
+        tags = new HashSet<>(tagList);
+
+        sample = entityManager.createQuery(
+                "from Log l where l.head = true and exists (select 1 from LogVisibleGroup v " +
+                "where v.logId = l.id and v.groupId = :groupId) order by l.id", Log.class)
+            .setParameter("groupId", group.getId())
+            .setMaxResults(1)
+            .getSingleResult();
+        rangeTo = sample.getTimeOfEvent();
+        rangeFrom = rangeTo.minusDays(1);
+        titleWord = sample.getTitle().substring(sample.getTitle().lastIndexOf(' ') + 1);
+
+        revised = entityManager.createQuery(
+                "from Log l where l.rootId is null and exists (select 1 from Log r where r.rootId = l.id) " +
+                "and exists (select 1 from LogVisibleGroup v where v.logId = l.id and v.groupId = :groupId) order by l.id",
+                Log.class)
+            .setParameter("groupId", group.getId())
+            .setMaxResults(1)
+            .getResultStream().findFirst().orElse(sample);
+    }
+
+    /** Runs the call in a new transaction, as a request would. */
+    public static <T> T inTransaction(Callable<T> call) {
+        return QuarkusTransaction.requiringNew().call(call);
+    }
+}
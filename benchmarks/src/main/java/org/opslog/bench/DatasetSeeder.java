@@ -0,0 +1,56 @@
+package org.opslog.bench;
+
+import org.jboss.logging.Logger;
+import org.opslog.ingest.backfill.ImportReport;
+import org.opslog.ingest.backfill.SyntheticDataset;
+import org.opslog.ingest.backfill.SyntheticLogGenerator;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * Writes the benchmark dataset through {@link SyntheticLogGenerator}: {@code bench-*} groups,
+ * accounts and tags, and logs with skewed groups, tags and authors, incident bursts and revision
+ * chains.
+ * <p>
+ * Everything is derived from {@link DatasetSize#seed()}, so two databases seeded with the same
+ * size hold the same data. Account {@code bench-admin} is an administrator member of every
+ * benchmark group.
+ * </p>
+ */
+final class DatasetSeeder {
+
+    private static final Logger LOG = Logger.getLogger(DatasetSeeder.class);
+
+    static final String PREFIX = "bench";
+    static final String ADMIN = PREFIX + "-admin";
+
+    private final SyntheticDataset dataset;
+    private final SyntheticLogGenerator generator = OpslogApplication.bean(SyntheticLogGenerator.class);
+
+    DatasetSeeder(DatasetSize size) {
+        this.dataset = new SyntheticDataset(PREFIX, size.seed(), size.accounts(), size.groups(), 1.0,
+            size.tags(), 1.1, 0.8, size.logs(),
+            ZonedDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+            ZonedDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+            200, 0.3, 90, size.revisedShare(), 5, 2048);
+    }
+
+    static String username(int index) {
+        return PREFIX + "-user-" + index;
+    }
+
+    static String tagTitle(int index) {
+        return PREFIX + "-tag-" + index;
+    }
+
+    /** Whether the dataset was seeded before, judged by its accounts. */
+    boolean seeded() {
+        return generator.exists(dataset);
+    }
+
+    void seed() {
+        ImportReport report = generator.generate(dataset);
+        LOG.infof("Seeded %s", report);
+    }
+}
@@ -0,0 +1,28 @@
+package org.opslog.bench;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * Shape of the benchmark dataset, from {@code opslog.bench.*} system properties.
+ *
+ * @param accounts     {@code opslog.bench.accounts}, accounts besides {@code bench-admin}
+ * @param groups       {@code opslog.bench.groups}
+ * @param tags         {@code opslog.bench.tags}
+ * @param logs         {@code opslog.bench.logs}, log rows, revisions included
+ * @param revisedShare {@code opslog.bench.revised-share}, fraction of the logs given revisions
+ * @param seed         {@code opslog.bench.seed}
+ */
+record DatasetSize(int accounts, int groups, int tags, long logs, double revisedShare, long seed) {
+
+    static DatasetSize fromConfig() {
+        Config config = ConfigProvider.getConfig();
+        return new DatasetSize(
+            config.getOptionalValue("opslog.bench.accounts", Integer.class).orElse(500),
+            config.getOptionalValue("opslog.bench.groups", Integer.class).orElse(40),
+            config.getOptionalValue("opslog.bench.tags", Integer.class).orElse(1000),
+            config.getOptionalValue("opslog.bench.logs", Long.class).orElse(2_000_000L),
+            config.getOptionalValue("opslog.bench.revised-share", Double.class).orElse(0.02),
+            config.getOptionalValue("opslog.bench.seed", Long.class).orElse(42L));
+    }
+}
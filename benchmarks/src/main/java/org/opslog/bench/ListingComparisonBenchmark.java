@@ -0,0 +1,123 @@
+package org.opslog.bench;
+
+import org.opslog.dto.LogListItem;
+import org.opslog.pagination.Page;
+import org.opslog.pagination.PageRequest;
+import org.opslog.reactive.ReactiveLogRepository;
+import org.opslog.repositories.LogFilter;
+import org.opslog.repositories.LogRepository;
+import org.opslog.security.AccountSecurityContext;
+import org.opslog.security.AccountSecurityContexts;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The same list page read through the blocking data path ({@link LogRepository}, JDBC) and the
+ * reactive one ({@link ReactiveLogRepository}). Needs a backend built with the {@code reactive}
+ * profile.
+ * <p>
+ * Each invocation issues {@link #inFlight} requests at once and waits for all of them, so one
+ * operation is that many pages. The reactive requests are all subscribed from the benchmark
+ * thread and multiplexed over the event loop; the blocking ones each take a thread of a pool of
+ * the same size, as requests take worker threads. With {@code inFlight = 1} both are a plain
+ * sequential call.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ListingComparisonBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    /** Requests in flight per invocation. */
+    @Param({ "1", "16", "64" })
+    public int inFlight;
+
+    private LogRepository blocking;
+    private ReactiveLogRepository reactive;
+    private AccountSecurityContext viewer;
+    private ExecutorService workers;
+
+    @Setup
+    public void setUp(Dataset d) {
+        blocking = OpslogApplication.bean(LogRepository.class);
+        reactive = OpslogApplication.bean(ReactiveLogRepository.class);
+        viewer = Dataset.inTransaction(() -> OpslogApplication.bean(AccountSecurityContexts.class).of(d.viewer));
+        workers = Executors.newFixedThreadPool(inFlight);
+    }
+
+    @TearDown
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Benchmark
+    public List<Page<LogListItem>> blockingFirstPage(Dataset d) throws Exception {
+        return blocking(() -> blocking.listByFilter(d.viewer, LogFilter.create(), PageRequest.first(PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public List<Page<LogListItem>> reactiveFirstPage() {
+        return reactive(() -> reactive.listAllVisible(viewer, PageRequest.first(PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public List<Page<LogListItem>> blockingTimeRange(Dataset d) throws Exception {
+        return blocking(() -> blocking.listByFilter(d.viewer,
+            LogFilter.create().between(d.rangeFrom, d.rangeTo), PageRequest.first(PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public List<Page<LogListItem>> reactiveTimeRange(Dataset d) {
+        return reactive(() -> reactive.listByTimeRange(viewer, d.rangeFrom, d.rangeTo, PageRequest.first(PAGE_SIZE)));
+    }
+
+    /** Runs {@link #inFlight} calls at once on the worker pool, each in its own transaction. */
+    private <T> List<T> blocking(Callable<T> call) throws InterruptedException, ExecutionException {
+        List<Future<T>> calls = new ArrayList<>(inFlight);
+        for (int i = 0; i < inFlight; i++) {
+            calls.add(workers.submit(() -> Dataset.inTransaction(call)));
+        }
+        List<T> results = new ArrayList<>(inFlight);
+        for (Future<T> pending : calls) {
+            results.add(pending.get());
+        }
+        return results;
+    }
+
+    /** Subscribes to {@link #inFlight} requests at once and waits for all of them. */
+    private <T> List<T> reactive(Supplier<Uni<T>> request) {
+        List<Uni<T>> requests = new ArrayList<>(inFlight);
+        for (int i = 0; i < inFlight; i++) {
+            requests.add(request.get());
+        }
+        return Uni.join().all(requests).andFailFast().await().indefinitely();
+    }
+}
@@ -0,0 +1,169 @@
+package org.opslog.bench;
+
+import org.opslog.entities.Account;
+import org.opslog.entities.Group;
+import org.opslog.entities.Log;
+import org.opslog.repositories.LogRepository;
+
+import jakarta.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The administrator delete paths of {@link LogRepository}. Each invocation deletes rows written
+ * for it beforehand, outside the measurement, by scratch accounts and groups, so the seeded
+ * dataset stays untouched. Scratch accounts and groups are removed after the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 50)
+@Fork(1)
+public class LogDeleteBenchmark {
+
+    private static final String SCRATCH = "bench-scratch-";
+    private static final AtomicLong SCRATCH_IDS = new AtomicLong(System.currentTimeMillis());
+
+    /** Logs deleted per invocation by the bulk delete paths. */
+    @Param("100")
+    int logsPerInvocation;
+
+    private LogRepository logs;
+
+    @Setup(Level.Trial)
+    public void setUp(Dataset d) {
+        logs = OpslogApplication.bean(LogRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Dataset.inTransaction(() -> {
+            EntityManager entityManager = OpslogApplication.bean(EntityManager.class);
+            String scratchAccounts = "SELECT id FROM account WHERE username LIKE '" + SCRATCH + "%'";
+            String scratchLogs = "SELECT id FROM log WHERE create_by_id IN (" + scratchAccounts + ")";
+            String scratchGroups = "SELECT id FROM \"group\" WHERE name LIKE '" + SCRATCH + "%'";
+            entityManager.createNativeQuery("DELETE FROM log_visible_group WHERE log_id IN (" + scratchLogs + ")").executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM log WHERE id IN (" + scratchLogs + ")").executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM account_groups WHERE account_id IN (" + scratchAccounts + ")").executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM account WHERE id IN (" + scratchAccounts + ")").executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM \"group\" WHERE id IN (" + scratchGroups + ")").executeUpdate();
+            return null;
+        });
+    }
+
+    // --- Rows to delete, written before every invocation --- //
+
+    @State(Scope.Thread)
+    public static class OneLog {
+        Log log;
+
+        @Setup(Level.Invocation)
+        public void write(Dataset d, LogDeleteBenchmark b) {
+            log = Dataset.inTransaction(() -> b.writeLogs(d.viewer, 1).get(0));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OneAccount {
+        Account account;
+
+        @Setup(Level.Invocation)
+        public void write(Dataset d, LogDeleteBenchmark b) {
+            account = Dataset.inTransaction(() -> {
+                Account scratch = scratchAccount(d.group);
+                b.writeLogs(scratch, b.logsPerInvocation);
+                return scratch;
+            });
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class TwoAccounts {
+        Set<Account> accounts;
+
+        @Setup(Level.Invocation)
+        public void write(Dataset d, LogDeleteBenchmark b) {
+            accounts = Dataset.inTransaction(() -> {
+                Set<Account> scratch = new HashSet<>(List.of(scratchAccount(d.group), scratchAccount(d.group)));
+                for (Account account : scratch) b.writeLogs(account, b.logsPerInvocation / 2);
+                return scratch;
+            });
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OneGroup {
+        Group group;
+
+        @Setup(Level.Invocation)
+        public void write(LogDeleteBenchmark b) {
+            group = Dataset.inTransaction(() -> {
+                Group scratch = new Group(SCRATCH + SCRATCH_IDS.incrementAndGet(), "Scratch group of LogDeleteBenchmark");
+                OpslogApplication.bean(EntityManager.class).persist(scratch);
+                b.writeLogs(scratchAccount(scratch), b.logsPerInvocation);
+                return scratch;
+            });
+        }
+    }
+
+    // --- Benchmarks --- //
+
+    @Benchmark
+    public boolean deleteLog(Dataset d, OneLog rows) {
+        return Dataset.inTransaction(() -> logs.deleteLog(d.admin, rows.log));
+    }
+
+    @Benchmark
+    public long deleteLogsForAccount(Dataset d, OneAccount rows) {
+        return Dataset.inTransaction(() -> logs.deleteLogsForAccount(d.admin, rows.account));
+    }
+
+    @Benchmark
+    public long deleteLogsForAccounts(Dataset d, TwoAccounts rows) {
+        return Dataset.inTransaction(() -> logs.deleteLogsForAccounts(d.admin, rows.accounts));
+    }
+
+    @Benchmark
+    public long deleteLogsForGroup(Dataset d, OneGroup rows) {
+        return Dataset.inTransaction(() -> logs.deleteLogsForGroup(d.admin, rows.group));
+    }
+
+    private static Account scratchAccount(Group group) {
+        String username = SCRATCH + SCRATCH_IDS.incrementAndGet();
+        Account account = new Account("Bench", username, username + "@bench.invalid", username, "-",
+            new HashSet<>(Set.of(group)));
+        OpslogApplication.bean(EntityManager.class).persist(account);
+        return account;
+    }
+
+    private List<Log> writeLogs(Account author, int count) {
+        List<Log> written = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Log entry = new Log(author, ZonedDateTime.now(), new HashSet<>(), SCRATCH + "log " + i, "To be deleted.");
+            logs.persistAndFlush(entry);
+            written.add(entry);
+        }
+        return written;
+    }
+}
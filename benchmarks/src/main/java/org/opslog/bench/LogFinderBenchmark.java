@@ -0,0 +1,256 @@
+package org.opslog.bench;
+
+import org.opslog.dto.LogListItem;
+import org.opslog.entities.Log;
+import org.opslog.pagination.Page;
+import org.opslog.pagination.PageRequest;
+import org.opslog.repositories.LogFilter;
+import org.opslog.repositories.LogRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Every {@link LogRepository} finder, as {@link Dataset#viewer} would call it from a request:
+ * one transaction per call, results fully materialized (streams fully consumed).
+ * <p>
+ * Throughput and sampled latency (percentiles) are reported for each; the {@code gc} profiler
+ * added by {@link BenchmarkMain} reports the allocation rate.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class LogFinderBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private LogRepository logs;
+
+    @Setup
+    public void setUp(Dataset dataset) {
+        logs = OpslogApplication.bean(LogRepository.class);
+    }
+
+    // --- Visibility --- //
+
+    @Benchmark
+    public List<Log> findAllVisibleLogs(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findAllVisibleLogs(d.viewer));
+    }
+
+    @Benchmark
+    public Page<Log> findAllVisibleLogsPage(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findAllVisibleLogs(d.viewer, PageRequest.first(PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public long streamAllVisibleLogs(Dataset d) {
+        return count(() -> logs.streamAllVisibleLogs(d.viewer));
+    }
+
+    // --- Time --- //
+
+    @Benchmark
+    public List<Log> findByTimeRange(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByTimeRange(d.viewer, d.rangeFrom, d.rangeTo));
+    }
+
+    @Benchmark
+    public long streamByTimeRange(Dataset d) {
+        return count(() -> logs.streamByTimeRange(d.viewer, d.rangeFrom, d.rangeTo));
+    }
+
+    @Benchmark
+    public Page<Log> findByTimeRangePage(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByTimeRange(d.viewer, d.rangeFrom, d.rangeTo, PageRequest.first(PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public List<LogListItem> listByTimeRange(Dataset d) {
+        return Dataset.inTransaction(() -> logs.listByTimeRange(d.viewer, d.rangeFrom, d.rangeTo));
+    }
+
+    @Benchmark
+    public List<Log> findByTime(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByTime(d.viewer, d.sample.getTimeOfEvent()));
+    }
+
+    @Benchmark
+    public long streamByTime(Dataset d) {
+        return count(() -> logs.streamByTime(d.viewer, d.sample.getTimeOfEvent()));
+    }
+
+    // --- Groups and authors --- //
+
+    @Benchmark
+    public List<Log> findByGroup(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByGroup(d.viewer, d.group));
+    }
+
+    @Benchmark
+    public Page<Log> findByGroupPage(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByGroup(d.viewer, d.group, PageRequest.first(PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public long streamByGroup(Dataset d) {
+        return count(() -> logs.streamByGroup(d.viewer, d.group));
+    }
+
+    @Benchmark
+    public List<Log> findByAllGroups(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByAllGroups(d.viewer));
+    }
+
+    @Benchmark
+    public List<Log> findByAccount(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByAccount(d.viewer, d.author));
+    }
+
+    @Benchmark
+    public long streamByAccount(Dataset d) {
+        return count(() -> logs.streamByAccount(d.viewer, d.author));
+    }
+
+    @Benchmark
+    public List<Log> findByAccounts(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByAccounts(d.viewer, d.authors));
+    }
+
+    @Benchmark
+    public long streamByAccounts(Dataset d) {
+        return count(() -> logs.streamByAccounts(d.viewer, d.authors));
+    }
+
+    // --- Tags --- //
+
+    @Benchmark
+    public List<Log> findByTag(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByTag(d.viewer, d.tag));
+    }
+
+    @Benchmark
+    public long streamByTag(Dataset d) {
+        return count(() -> logs.streamByTag(d.viewer, d.tag));
+    }
+
+    @Benchmark
+    public List<Log> findByTags(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByTags(d.viewer, d.tags));
+    }
+
+    @Benchmark
+    public long streamByTags(Dataset d) {
+        return count(() -> logs.streamByTags(d.viewer, d.tags));
+    }
+
+    @Benchmark
+    public Page<Log> findByTagsAndAccountsPage(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByTagsAndAccounts(d.viewer, d.tags, d.authors, PageRequest.first(PAGE_SIZE)));
+    }
+
+    // --- Text --- //
+
+    @Benchmark
+    public List<Log> findByTitle(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByTitle(d.viewer, d.sample.getTitle()));
+    }
+
+    @Benchmark
+    public long streamByTitle(Dataset d) {
+        return count(() -> logs.streamByTitle(d.viewer, d.sample.getTitle()));
+    }
+
+    @Benchmark
+    public Page<Log> findByTitleContainsPage(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByTitleContains(d.viewer, d.titleWord, PageRequest.first(PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public List<Log> findByTitleContains(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByTitleContains(d.viewer, d.titleWord));
+    }
+
+    @Benchmark
+    public long streamByTitleContains(Dataset d) {
+        return count(() -> logs.streamByTitleContains(d.viewer, d.titleWord));
+    }
+
+    @Benchmark
+    public List<Log> findByDescription(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByDescription(d.viewer, d.sample.getDescription()));
+    }
+
+    @Benchmark
+    public long streamByDescription(Dataset d) {
+        return count(() -> logs.streamByDescription(d.viewer, d.sample.getDescription()));
+    }
+
+    @Benchmark
+    public List<Log> findByDescriptionContains(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findByDescriptionContains(d.viewer, d.titleWord));
+    }
+
+    @Benchmark
+    public long streamByDescriptionContains(Dataset d) {
+        return count(() -> logs.streamByDescriptionContains(d.viewer, d.titleWord));
+    }
+
+    // --- Composed filters and projections --- //
+
+    @Benchmark
+    public Page<Log> findByFilterPage(Dataset d) {
+        LogFilter filter = LogFilter.create().taggedWithAny(d.tags).createdByAny(d.authors).since(d.rangeFrom.minusDays(30));
+        return Dataset.inTransaction(() -> logs.findByFilter(d.viewer, filter, PageRequest.first(PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public long streamByFilter(Dataset d) {
+        LogFilter filter = LogFilter.create().taggedWithAny(d.tags).createdByAny(d.authors).since(d.rangeFrom.minusDays(30));
+        return count(() -> logs.streamByFilter(d.viewer, filter));
+    }
+
+    @Benchmark
+    public Page<LogListItem> listByFilterPage(Dataset d) {
+        return Dataset.inTransaction(() -> logs.listByFilter(d.viewer, LogFilter.create(), PageRequest.first(PAGE_SIZE)));
+    }
+
+    // --- Revisions --- //
+
+    @Benchmark
+    public Set<Log> findRevisions(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findRevisions(d.revised));
+    }
+
+    @Benchmark
+    public List<Log> findRevisionChain(Dataset d) {
+        return Dataset.inTransaction(() -> logs.findRevisionChain(d.viewer, d.revised));
+    }
+
+    /** Consumes a streaming finder within one transaction, closing the stream. */
+    private static long count(Supplier<Stream<Log>> finder) {
+        return Dataset.inTransaction(() -> {
+            try (Stream<Log> stream = finder.get()) {
+                return stream.count();
+            }
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package org.opslog.bench;
+
+import org.opslog.entities.Log;
+import org.opslog.repositories.LogRepository;
+
+import jakarta.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-log writes: {@link LogRepository#persistAndFlush} and {@link LogRepository#addRevision},
+ * each in its own transaction like a request. The logs written are removed after the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class LogWriteBenchmark {
+
+    static final String TITLE_PREFIX = "bench-write ";
+
+    private LogRepository logs;
+    private Log head;
+
+    @Setup(Level.Trial)
+    public void setUp(Dataset d) {
+        logs = OpslogApplication.bean(LogRepository.class);
+        head = Dataset.inTransaction(() -> {
+            Log log = newLog(d, "chain");
+            logs.persistAndFlush(log);
+            return log;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Dataset.inTransaction(() -> {
+            EntityManager entityManager = OpslogApplication.bean(EntityManager.class);
+            // Revisions first: parent_id references the superseded entries
+            return entityManager.createQuery("delete from Log l where l.title like :prefix and l.rootId is not null")
+                .setParameter("prefix", TITLE_PREFIX + "%").executeUpdate()
+                + entityManager.createQuery("delete from Log l where l.title like :prefix")
+                .setParameter("prefix", TITLE_PREFIX + "%").executeUpdate();
+        });
+    }
+
+    @Benchmark
+    public Log persistAndFlush(Dataset d) {
+        return Dataset.inTransaction(() -> {
+            Log log = newLog(d, "persist");
+            logs.persistAndFlush(log);
+            return log;
+        });
+    }
+
+    /** Revises the same chain over and over, so the chain grows during the trial. */
+    @Benchmark
+    public Log addRevision(Dataset d) {
+        Log revision = Dataset.inTransaction(() -> {
+            EntityManager entityManager = OpslogApplication.bean(EntityManager.class);
+            Log parent = entityManager.find(Log.class, head.getId());
+            Log log = newLog(d, "revision");
+            logs.addRevision(parent, log, d.viewer);
+            return log;
+        });
+        head = revision;
+        return revision;
+    }
+
+    private static Log newLog(Dataset d, String kind) {
+        return new Log(d.viewer, ZonedDateTime.now(), new HashSet<>(), TITLE_PREFIX + kind,
+            "Written by LogWriteBenchmark. ".repeat(8));
+    }
+}
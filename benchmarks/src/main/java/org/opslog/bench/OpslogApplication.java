@@ -0,0 +1,52 @@
+package org.opslog.bench;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.runtime.Application;
+
+/**
+ * The backend, started in-process from its uber-jar so benchmarks call the real CDI beans,
+ * Hibernate configuration and connection pool.
+ * <p>
+ * The HTTP server binds a random port and scheduled jobs that would compete with the measured
+ * queries (archiving, partition maintenance) are off unless set explicitly.
+ * </p>
+ */
+final class OpslogApplication {
+
+    private static Application application;
+
+    private OpslogApplication() {}
+
+    static synchronized void start() {
+        if (application != null) return;
+        defaultProperty("quarkus.http.port", "0");
+        defaultProperty("opslog.archive.enabled", "false");
+        defaultProperty("opslog.partitioning.enabled", "false");
+        defaultProperty("opslog.tail.enabled", "false");
+        try {
+            // Generated by the Quarkus build into the uber-jar
+            Application started = (Application) Class.forName("io.quarkus.runner.ApplicationImpl")
+                .getDeclaredConstructor().newInstance();
+            started.start(new String[0]);
+            application = started;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Backend uber-jar not on the classpath, see README.md", e);
+        }
+    }
+
+    static synchronized void stop() {
+        if (application == null) return;
+        application.stop();
+        application = null;
+    }
+
+    static <T> T bean(Class<T> type) {
+        T bean = Arc.container().instance(type).get();
+        if (bean == null) throw new IllegalStateException(type.getSimpleName() + " is not a bean of this backend build");
+        return bean;
+    }
+
+    private static void defaultProperty(String name, String value) {
+        if (System.getProperty(name) == null) System.setProperty(name, value);
+    }
+}